@@ -0,0 +1,133 @@
+package com.petclinic.PetClinicBackend.config;
+
+import com.petclinic.PetClinicBackend.util.BoundedCache;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 🗃️ In-process Hibernate second-level cache: every region is a {@link BoundedCache} (LRU + TTL), so memory use
+ * is capped per region. Instantiated by Hibernate from {@code hibernate.cache.region.factory_class}; sized with
+ * {@code hibernate.cache.bounded.max_entries} and {@code hibernate.cache.bounded.ttl_millis}. Each application
+ * instance has its own copy: the TTL bounds how long another instance's commits can go unseen, and the
+ * version columns reject writes based on a stale copy.
+ */
+public class BoundedCacheRegionFactory extends RegionFactoryTemplate {
+
+    public static final String MAX_ENTRIES = "hibernate.cache.bounded.max_entries";
+    public static final String TTL_MILLIS = "hibernate.cache.bounded.ttl_millis";
+
+    private int maxEntries = 10_000;
+    private long ttlMillis = 600_000;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        maxEntries = Integer.parseInt(String.valueOf(configValues.getOrDefault(MAX_ENTRIES, maxEntries)));
+        ttlMillis = Long.parseLong(String.valueOf(configValues.getOrDefault(TTL_MILLIS, ttlMillis)));
+    }
+
+    @Override
+    protected void releaseFromUse() {
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new BoundedStorageAccess(new BoundedCache<>(maxEntries, ttlMillis));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new BoundedStorageAccess(new BoundedCache<>(maxEntries, ttlMillis));
+    }
+
+    // Update timestamps must never be evicted before the query results that depend on them
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return new TimestampsStorageAccess();
+    }
+
+    private static class BoundedStorageAccess implements DomainDataStorageAccess {
+
+        private final BoundedCache<Object, Object> cache;
+
+        BoundedStorageAccess(BoundedCache<Object, Object> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.get(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            cache.put(key, value);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.get(key) != null;
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+    }
+
+    private static class TimestampsStorageAccess implements StorageAccess {
+
+        private final Map<Object, Object> timestamps = new ConcurrentHashMap<>();
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return timestamps.get(key);
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            timestamps.put(key, value);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return timestamps.containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            timestamps.clear();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            timestamps.remove(key);
+        }
+
+        @Override
+        public void release() {
+            timestamps.clear();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.petclinic.PetClinicBackend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 🗃️ {@code GET /actuator/l2cache}: hit / miss / put counts of the Hibernate second-level cache, in total and
+ * per region (entity, collection and natural-id regions). Needs {@code hibernate.generate_statistics}.
+ */
+@Component
+@Endpoint(id = "l2cache")
+public class L2CacheEndpoint {
+
+    private final Statistics statistics;
+
+    public L2CacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> cacheStatistics() {
+        Map<String, Object> regions = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics stats = statistics.getDomainDataRegionStatistics(region);
+            if (stats == null) {
+                continue;
+            }
+            regions.put(region, counts(stats.getHitCount(), stats.getMissCount(), stats.getPutCount(),
+                    stats.getElementCountInMemory()));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("secondLevel", counts(statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount(), -1));
+        result.put("naturalId", counts(statistics.getNaturalIdCacheHitCount(),
+                statistics.getNaturalIdCacheMissCount(), statistics.getNaturalIdCachePutCount(), -1));
+        result.put("regions", regions);
+        return result;
+    }
+
+    private static Map<String, Object> counts(long hits, long misses, long puts, long entries) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        long lookups = hits + misses;
+        counts.put("hitRatio", lookups == 0 ? 0.0 : (double) hits / lookups);
+        if (entries >= 0) {
+            counts.put("entries", entries);
+        }
+        return counts;
+    }
+}
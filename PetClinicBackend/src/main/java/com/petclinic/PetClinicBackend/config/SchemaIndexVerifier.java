@@ -0,0 +1,117 @@
+package com.petclinic.PetClinicBackend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinTable;
+import jakarta.persistence.Table;
+import jakarta.persistence.metamodel.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// 🔎 Every @Index declared on an entity (or its join tables) must exist in the database, or startup fails
+@Component
+@ConditionalOnProperty(name = "schema.index-check.enabled", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+
+    public SchemaIndexVerifier(EntityManagerFactory entityManagerFactory, DataSource dataSource) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyOnStartup() {
+        List<String> missing = findMissingIndexes();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Declared indexes missing from the database: " + missing
+                    + ". Add a migration under db/migration.");
+        }
+    }
+
+    public List<String> findMissingIndexes() {
+        Map<String, Set<String>> declared = declaredIndexes();
+        List<String> missing = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData meta = connection.getMetaData();
+            for (Map.Entry<String, Set<String>> table : declared.entrySet()) {
+                Set<String> existing = existingIndexes(connection, meta, table.getKey());
+                for (String index : table.getValue()) {
+                    if (!existing.contains(index.toLowerCase(Locale.ROOT))) {
+                        missing.add(table.getKey() + "." + index);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot read index metadata", e);
+        }
+
+        logger.info("Index check: {} declared index(es) on {} table(s), {} missing",
+                declared.values().stream().mapToInt(Set::size).sum(), declared.size(), missing.size());
+        return missing;
+    }
+
+    private Map<String, Set<String>> declaredIndexes() {
+        Map<String, Set<String>> declared = new TreeMap<>();
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            Class<?> type = entity.getJavaType();
+            Table table = type.getAnnotation(Table.class);
+            if (table != null) {
+                addAll(declared, table.name(), table.indexes());
+            }
+            for (Field field : type.getDeclaredFields()) {
+                JoinTable joinTable = field.getAnnotation(JoinTable.class);
+                if (joinTable != null) {
+                    addAll(declared, joinTable.name(), joinTable.indexes());
+                }
+            }
+        }
+        return declared;
+    }
+
+    private static void addAll(Map<String, Set<String>> declared, String table, Index[] indexes) {
+        for (Index index : indexes) {
+            if (table.isBlank() || index.name().isBlank()) {
+                throw new IllegalStateException("Indexes need an explicit table and index name to be verified: " + index);
+            }
+            declared.computeIfAbsent(table, t -> new HashSet<>()).add(index.name());
+        }
+    }
+
+    private static Set<String> existingIndexes(Connection connection, DatabaseMetaData meta, String table)
+            throws SQLException {
+        String name = meta.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+        Set<String> existing = new HashSet<>();
+        try (ResultSet rs = meta.getIndexInfo(connection.getCatalog(), connection.getSchema(), name, false, false)) {
+            while (rs.next()) {
+                String index = rs.getString("INDEX_NAME");
+                if (index != null) {
+                    existing.add(index.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return existing;
+    }
+}
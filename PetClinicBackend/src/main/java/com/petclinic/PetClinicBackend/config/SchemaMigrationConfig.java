@@ -0,0 +1,27 @@
+package com.petclinic.PetClinicBackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "schema.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class SchemaMigrationConfig {
+
+    // 🗄️ Versioned scripts own the schema; Hibernate only validates it
+    @Bean
+    public SchemaMigrator schemaMigrator(DataSource dataSource,
+                                         @Value("${schema.migration.location:classpath:db/migration}") String location) {
+        return new SchemaMigrator(dataSource, location);
+    }
+
+    // Migrations must finish before Hibernate boots and validates the schema
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor schemaMigratorDependency() {
+        return new EntityManagerFactoryDependsOnPostProcessor("schemaMigrator");
+    }
+}
@@ -0,0 +1,160 @@
+package com.petclinic.PetClinicBackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Applies versioned SQL scripts (V&lt;n&gt;__&lt;description&gt;.sql) in order and records them in
+ * schema_version, so the schema is owned by reviewed scripts instead of ddl-auto.
+ * Runs before the EntityManagerFactory (see SchemaMigrationConfig); an edited, already applied
+ * script fails startup rather than silently drifting.
+ */
+public class SchemaMigrator implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final String HISTORY_TABLE = "schema_version";
+
+    private static final String LOCK_NAME = "schema_migrator";
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+
+    private final DataSource dataSource;
+    private final String location;
+
+    public SchemaMigrator(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.location = location;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrate();
+    }
+
+    // 🔒 Everything runs on one connection holding a named lock, so instances starting together apply each
+    // script once: the second waits, then reads the history the first one wrote
+    public void migrate() {
+        try (Connection connection = dataSource.getConnection()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            boolean locked = acquireLock(connection, jdbcTemplate);
+            try {
+                migrate(connection, jdbcTemplate);
+            } finally {
+                if (locked) {
+                    jdbcTemplate.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Schema migration failed", e);
+        }
+    }
+
+    private void migrate(Connection connection, JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " ("
+                + "version INT NOT NULL PRIMARY KEY, "
+                + "description VARCHAR(200) NOT NULL, "
+                + "checksum BIGINT NOT NULL, "
+                + "installed_on TIMESTAMP NOT NULL, "
+                + "execution_ms BIGINT NOT NULL)");
+
+        Map<Integer, Long> applied = new HashMap<>();
+        jdbcTemplate.query("SELECT version, checksum FROM " + HISTORY_TABLE,
+                rs -> { applied.put(rs.getInt(1), rs.getLong(2)); });
+
+        int executed = 0;
+        for (Migration migration : loadMigrations().values()) {
+            Long checksum = applied.get(migration.version());
+            if (checksum != null) {
+                if (checksum != migration.checksum()) {
+                    throw new IllegalStateException("Migration V" + migration.version()
+                            + " was modified after it was applied: " + migration.resource().getFilename());
+                }
+                continue;
+            }
+            apply(connection, jdbcTemplate, migration);
+            executed++;
+        }
+        logger.info("Schema is up to date: {} migration(s) applied now, {} already present", executed, applied.size());
+    }
+
+    // MySQL and MariaDB only; other databases (H2 in tests) are single-process here and migrate unlocked
+    private boolean acquireLock(Connection connection, JdbcTemplate jdbcTemplate) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        if (!"MySQL".equalsIgnoreCase(product) && !"MariaDB".equalsIgnoreCase(product)) {
+            return false;
+        }
+        Integer granted = jdbcTemplate.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class,
+                LOCK_NAME, LOCK_TIMEOUT_SECONDS);
+        if (granted == null || granted != 1) {
+            throw new IllegalStateException("Timed out after " + LOCK_TIMEOUT_SECONDS
+                    + " s waiting for the schema migration lock held by another instance");
+        }
+        return true;
+    }
+
+    private void apply(Connection connection, JdbcTemplate jdbcTemplate, Migration migration) {
+        long start = System.currentTimeMillis();
+        ScriptUtils.executeSqlScript(connection, migration.resource());
+        long elapsed = System.currentTimeMillis() - start;
+
+        jdbcTemplate.update("INSERT INTO " + HISTORY_TABLE
+                        + " (version, description, checksum, installed_on, execution_ms) VALUES (?, ?, ?, ?, ?)",
+                migration.version(), migration.description(), migration.checksum(),
+                Timestamp.from(Instant.now()), elapsed);
+        logger.info("Applied migration V{} ({}) in {} ms", migration.version(), migration.description(), elapsed);
+    }
+
+    private TreeMap<Integer, Migration> loadMigrations() {
+        TreeMap<Integer, Migration> migrations = new TreeMap<>();
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location + "/V*__*.sql");
+            for (Resource resource : resources) {
+                Matcher matcher = SCRIPT_NAME.matcher(resource.getFilename());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                int version = Integer.parseInt(matcher.group(1));
+                Migration migration = new Migration(version, matcher.group(2).replace('_', ' '),
+                        checksum(resource), resource);
+                if (migrations.putIfAbsent(version, migration) != null) {
+                    throw new IllegalStateException("Duplicate migration version V" + version);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read migrations from " + location, e);
+        }
+        return migrations;
+    }
+
+    private static long checksum(Resource resource) throws IOException {
+        CRC32 crc = new CRC32();
+        // Line endings are normalised so a checkout on Windows does not count as an edit
+        String script = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        crc.update(script.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private record Migration(int version, String description, long checksum, Resource resource) {
+    }
+}
@@ -1,11 +1,23 @@
 package com.petclinic.PetClinicBackend.config;
 
+import com.petclinic.PetClinicBackend.security.AdaptiveBCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class SecurityBeanConfig {
 
+    // ✅ Password encoder bean: the pinned security.bcrypt.strength, else a cost calibrated at startup
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:0}") int strength,
+                                           @Value("${security.bcrypt.target-millis:250}") long targetMillis,
+                                           @Value("${security.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${security.bcrypt.max-strength:14}") int maxStrength) {
+        if (strength > 0) {
+            return new AdaptiveBCryptPasswordEncoder(strength);
+        }
+        return AdaptiveBCryptPasswordEncoder.calibrated(targetMillis, minStrength, maxStrength);
+    }
 }
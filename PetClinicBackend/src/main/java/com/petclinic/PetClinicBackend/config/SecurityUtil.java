@@ -1,5 +1,6 @@
 package com.petclinic.PetClinicBackend.config;
 
+import com.petclinic.PetClinicBackend.security.AuthorizationContext;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -28,4 +29,13 @@ public class SecurityUtil {
         }
         return authentication.getAuthorities().contains(new SimpleGrantedAuthority(ROLE_PREFIX + role));
     }
+
+    // Get the per-request authorization context built by the JWT filter (empty for other auth types)
+    public static Optional<AuthorizationContext> getAuthorizationContext() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getDetails() instanceof AuthorizationContext context) {
+            return Optional.of(context);
+        }
+        return Optional.empty();
+    }
 }
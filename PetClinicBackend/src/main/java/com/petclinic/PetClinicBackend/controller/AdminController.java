@@ -1,15 +1,52 @@
 package com.petclinic.PetClinicBackend.controller;
 
+import com.petclinic.PetClinicBackend.dto.ClinicStatsDTO;
+import com.petclinic.PetClinicBackend.dto.ImportReport;
+import com.petclinic.PetClinicBackend.service.ClinicImportService;
+import com.petclinic.PetClinicBackend.service.ClinicStatsService;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
 
+    private final ClinicStatsService clinicStatsService;
+    private final ClinicImportService clinicImportService;
+
+    public AdminController(ClinicStatsService clinicStatsService, ClinicImportService clinicImportService) {
+        this.clinicStatsService = clinicStatsService;
+        this.clinicImportService = clinicImportService;
+    }
+
     @GetMapping("/dashboard")
     @PreAuthorize("hasAnyRole('ADMIN','SUPERADMIN')")
     public String getAdminDashboard() {
         return "Welcome to Admin Dashboard!";
     }
+
+    // 📊 Totals and breakdowns served from in-memory counters (no table scans per request)
+    @GetMapping("/stats")
+    @PreAuthorize("hasAnyRole('ADMIN','SUPERADMIN')")
+    public ClinicStatsDTO getStats() {
+        return clinicStatsService.snapshot();
+    }
+
+    // 📥 Bulk owner/pet/visit import; the body is streamed, never buffered whole
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    @PreAuthorize("hasAnyRole('ADMIN','SUPERADMIN')")
+    public ImportReport importClinicData(InputStream body) {
+        return clinicImportService.importCsv(body);
+    }
+
+    // Progress of the running import, or the last result
+    @GetMapping("/import/status")
+    @PreAuthorize("hasAnyRole('ADMIN','SUPERADMIN')")
+    public ResponseEntity<ImportReport> getImportStatus() {
+        ImportReport report = clinicImportService.getStatus();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
 }
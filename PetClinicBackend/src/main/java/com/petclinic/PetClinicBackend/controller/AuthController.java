@@ -2,98 +2,95 @@ package com.petclinic.PetClinicBackend.controller;
 
 import com.petclinic.PetClinicBackend.dto.LoginRequest;
 import com.petclinic.PetClinicBackend.dto.LoginResponse;
+import com.petclinic.PetClinicBackend.dto.RefreshRequest;
 import com.petclinic.PetClinicBackend.dto.RegisterRequest;
-import com.petclinic.PetClinicBackend.model.Owner;
-import com.petclinic.PetClinicBackend.model.Role;
-import com.petclinic.PetClinicBackend.model.User;
-import com.petclinic.PetClinicBackend.repository.OwnerRepository;
-import com.petclinic.PetClinicBackend.repository.RoleRepository;
 import com.petclinic.PetClinicBackend.repository.UserRepository;
-import com.petclinic.PetClinicBackend.security.JwtUtil;
-import com.petclinic.PetClinicBackend.service.CustomUserDetailsService;
+import com.petclinic.PetClinicBackend.security.PasswordHashingExecutor;
+import com.petclinic.PetClinicBackend.security.PrincipalCache;
+import com.petclinic.PetClinicBackend.service.AuthService;
+import com.petclinic.PetClinicBackend.service.RefreshTokenService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private UserRepository userRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private RoleRepository roleRepository;
+    private PrincipalCache principalCache;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private RefreshTokenService refreshTokenService;
 
     @Autowired
-    private JwtUtil jwtUtil;
+    private PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService; // ✅ Inject here
+    private AuthService authService;
 
+    // Continues register and login once BCrypt is done, so the hashing pool never runs database work
     @Autowired
-    private OwnerRepository ownerRepository;
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private Executor applicationTaskExecutor;
 
+    // ✅ BCrypt runs on the bounded hashing pool; the Tomcat thread is released while it works
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest userRequest, BindingResult bindingResult) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody RegisterRequest userRequest, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
             String errorMessage = bindingResult.getFieldError().getDefaultMessage();
-            return ResponseEntity.badRequest().body("⚠ " + errorMessage);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("⚠ " + errorMessage));
         }
 
         if (userRepository.existsByEmail(userRequest.getEmail())) {
-            return ResponseEntity.badRequest().body("⚠ Email is already registered");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("⚠ Email is already registered"));
         }
 
-        User user = new User();
-        user.setUsername(userRequest.getUsername());
-        user.setName(userRequest.getName());
-        user.setEmail(userRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(userRequest.getPassword()));
-
-        Role userRole = roleRepository.findByName("ROLE_USER").orElseThrow();
-        user.setRoles(Collections.singleton(userRole));
-
-        User savedUser = userRepository.save(user);
-
-        Owner owner = new Owner();
-        owner.setName(userRequest.getName());
-        owner.setEmail(userRequest.getEmail());
-        owner.setPhone(userRequest.getPhone());
-        owner.setAddress(userRequest.getAddress());
-        owner.setUser(savedUser);
+        return passwordHashingExecutor.submit(() -> passwordEncoder.encode(userRequest.getPassword()))
+                .thenApplyAsync(encodedPassword -> {
+                    authService.register(userRequest, encodedPassword);
+                    return ResponseEntity.ok("✅ Registered successfully.");
+                }, applicationTaskExecutor);
+    }
 
-        ownerRepository.save(owner);
 
-        return ResponseEntity.ok("✅ Registered successfully.");
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
+        UserDetails user = authService.findLoginUser(loginRequest.getEmail());
+        return passwordHashingExecutor.submit(() -> authService.checkPassword(user, loginRequest.getPassword()))
+                .thenApplyAsync(rehashed -> ResponseEntity.ok(authService.completeLogin(user, rehashed.orElse(null))),
+                        applicationTaskExecutor);
     }
 
+    // 🔄 Renew the access token without a password check (no BCrypt)
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
 
-    @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword())
-        );
+        UserDetails userDetails = principalCache.load(rotation.email());
+        String token = authService.accessToken(userDetails);
 
-        // ✅ Load user details for token generation
-        UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequest.getEmail());
-        String token = jwtUtil.generateToken(userDetails);
+        return ResponseEntity.ok(new LoginResponse(token, rotation.refreshToken()));
+    }
 
-        return ResponseEntity.ok(new LoginResponse(token));
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@Valid @RequestBody RefreshRequest refreshRequest) {
+        refreshTokenService.revoke(refreshRequest.getRefreshToken());
+        return ResponseEntity.noContent().build();
     }
 }
@@ -1,16 +1,23 @@
 package com.petclinic.PetClinicBackend.controller;
 
 import com.petclinic.PetClinicBackend.config.SecurityUtil;
+import com.petclinic.PetClinicBackend.dto.CursorPage;
+import com.petclinic.PetClinicBackend.dto.OwnerDTO;
 import com.petclinic.PetClinicBackend.exception.ResourceNotFoundException;
 import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.service.OwnerHomeCache;
 import com.petclinic.PetClinicBackend.service.OwnerService;
+import com.petclinic.PetClinicBackend.util.ResourceVersion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/owners")
@@ -19,25 +26,24 @@ public class OwnerController {
     @Autowired
     private OwnerService ownerService;
 
-    // ✅ Authenticated USER can view their own owner record
+    // ✅ Authenticated USER can view their own owner record (cached per owner; 304 if the client's ETag is current)
     @GetMapping("/me")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Owner> getMyOwnerDetails() {
+    public ResponseEntity<OwnerDTO> getMyOwnerDetails(WebRequest request) {
         String email = SecurityUtil.getCurrentUserLogin()
                 .orElseThrow(() -> new UsernameNotFoundException("User not logged in"));
 
-        Owner owner = ownerService.getOwnerByUsername(email);
-        if (owner == null) {
-            throw new ResourceNotFoundException("Owner profile not found for this user.");
+        OwnerHomeCache.Entry<OwnerDTO> mine = ownerService.getMyOwnerEntry(email);
+        if (mine.version().notModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
         }
-
-        return ResponseEntity.ok(owner);
+        return ResponseEntity.ok().cacheControl(ResourceVersion.REVALIDATE).body(mine.body());
     }
 
     // ✅ Authenticated USER can update their own profile
     @PutMapping("/me")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Owner> updateMyOwnerDetails(@RequestBody Owner ownerDetails) {
+    public ResponseEntity<OwnerDTO> updateMyOwnerDetails(@RequestBody Owner ownerDetails) {
         String email = SecurityUtil.getCurrentUserLogin()
                 .orElseThrow(() -> new UsernameNotFoundException("User not logged in"));
 
@@ -52,37 +58,51 @@ public class OwnerController {
         existingOwner.setAddress(ownerDetails.getAddress());
 
         Owner updatedOwner = ownerService.updateOwner(existingOwner.getId(), existingOwner);
-        return ResponseEntity.ok(updatedOwner);
+        return ResponseEntity.ok(new OwnerDTO(updatedOwner));
     }
 
     // ✅ ADMIN and SUPERADMIN can get all owners
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
-    public List<Owner> getAllOwners() {
-        return ownerService.getAllOwners();
+    public List<OwnerDTO> getAllOwners() {
+        return ownerService.getAllOwnerDTOs();
+    }
+
+    // 📄 Keyset-paginated owners: ?size=&cursor=&sort=name,asc&count=true
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public CursorPage<OwnerDTO> getOwnerPage(@RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer size,
+                                          @RequestParam(required = false) String sort,
+                                          @RequestParam(defaultValue = "false") boolean count) {
+        return ownerService.getOwnerPage(cursor, size, sort, count);
     }
 
     // ✅ ADMIN and SUPERADMIN can get owner by ID
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<Owner> getOwnerById(@PathVariable Long id) {
-        return ownerService.getOwnerById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<OwnerDTO> getOwnerById(@PathVariable Long id, WebRequest request) {
+        Optional<ResourceVersion> version = ownerService.getOwnerVersionById(id);
+        if (version.isPresent() && version.get().notModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ownerService.getOwnerDTOById(id)
+                .map(owner -> ResponseEntity.ok().cacheControl(ResourceVersion.REVALIDATE).body(owner))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // ✅ ADMIN and SUPERADMIN can create a new owner
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
-    public Owner createOwner(@RequestBody Owner owner) {
-        return ownerService.createOwner(owner);
+    public OwnerDTO createOwner(@RequestBody Owner owner) {
+        return new OwnerDTO(ownerService.createOwner(owner));
     }
 
     // ✅ ADMIN and SUPERADMIN can update any owner
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
-    public Owner updateOwner(@PathVariable Long id, @RequestBody Owner owner) {
-        return ownerService.updateOwner(id, owner);
+    public OwnerDTO updateOwner(@PathVariable Long id, @RequestBody Owner owner) {
+        return new OwnerDTO(ownerService.updateOwner(id, owner));
     }
 
     // ✅ SUPERADMIN can delete only owner
@@ -103,16 +123,7 @@ public class OwnerController {
     // ✅ ADMIN or SUPERADMIN can get Owner by user email (safe serialization)
     @GetMapping("/user/{email}")
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<Owner> getOwnerByUserEmail(@PathVariable String email) {
-        Owner owner = ownerService.getOwnerByUsername(email);
-        if (owner == null) {
-            throw new ResourceNotFoundException("No owner associated with this email.");
-        }
-
-        if (owner.getUser() != null) {
-            owner.getUser().getId(); // force lazy load
-        }
-
-        return ResponseEntity.ok(owner);
+    public ResponseEntity<OwnerDTO> getOwnerByUserEmail(@PathVariable String email) {
+        return ResponseEntity.ok(ownerService.getOwnerDTOByUsername(email));
     }
 }
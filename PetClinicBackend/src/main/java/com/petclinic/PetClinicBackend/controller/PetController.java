@@ -1,19 +1,24 @@
 package com.petclinic.PetClinicBackend.controller;
 
 import com.petclinic.PetClinicBackend.config.SecurityUtil;
+import com.petclinic.PetClinicBackend.dto.CursorPage;
 import com.petclinic.PetClinicBackend.dto.PetResponseDTO;
 import com.petclinic.PetClinicBackend.exception.ResourceNotFoundException;
 import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.service.OwnerHomeCache;
 import com.petclinic.PetClinicBackend.service.PetService;
 import com.petclinic.PetClinicBackend.service.UserService;
+import com.petclinic.PetClinicBackend.util.ResourceVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/pets")
@@ -32,14 +37,16 @@ public class PetController {
     // ✅ Get pets for currently logged-in user (must come before /{id})
     @GetMapping("/mine")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<PetResponseDTO>> getMyPets() {
+    public ResponseEntity<List<PetResponseDTO>> getMyPets(WebRequest request) {
         String username = SecurityUtil.getCurrentUserLogin()
                 .orElseThrow(() -> new RuntimeException("User not logged in"));
 
+        OwnerHomeCache.Entry<List<PetResponseDTO>> mine = petService.getMyPetsEntry();
+        if (mine.version().notModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         logger.info("Fetching pets for currently logged-in user: {}", username);
-        List<Pet> pets = petService.getMyPets();
-        List<PetResponseDTO> response = pets.stream().map(this::mapToDTO).collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().cacheControl(ResourceVersion.REVALIDATE).body(mine.body());
     }
 
     // ✅ Admins & SuperAdmins can view all pets
@@ -47,23 +54,34 @@ public class PetController {
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
     public ResponseEntity<List<PetResponseDTO>> getAllPets() {
         logger.info("Fetching all pets by admin/superadmin");
-        List<Pet> pets = petService.getAllPets();
-        List<PetResponseDTO> response = pets.stream().map(this::mapToDTO).collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(petService.getAllPetDTOs());
+    }
+
+    // 📄 Keyset-paginated pets: ?size=&cursor=&sort=name,asc&count=true
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<CursorPage<PetResponseDTO>> getPetPage(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer size,
+                                                                 @RequestParam(required = false) String sort,
+                                                                 @RequestParam(defaultValue = "false") boolean count) {
+        return ResponseEntity.ok(petService.getPetPage(cursor, size, sort, count));
     }
 
     // ✅ Users can view their own pets; Admins can view any
     @GetMapping("/owner/{ownerId}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<List<PetResponseDTO>> getPetsByOwner(@PathVariable Long ownerId) {
+    public ResponseEntity<List<PetResponseDTO>> getPetsByOwner(@PathVariable Long ownerId, WebRequest request) {
         String username = SecurityUtil.getCurrentUserLogin()
                 .orElseThrow(() -> new RuntimeException("User not logged in"));
 
-        if (userService.isCurrentUserOwnerOf(ownerId, username) || userService.isAdmin(username)) {
+        if (userService.isAdmin(username) || userService.isCurrentUserOwnerOf(ownerId, username)) {
+            if (petService.getPetsVersionByOwnerId(ownerId).notModified(request)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
             logger.info("Fetching pets for owner ID {}", ownerId);
-            List<Pet> pets = petService.getPetsByOwnerId(ownerId);
-            List<PetResponseDTO> response = pets.stream().map(this::mapToDTO).collect(Collectors.toList());
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .cacheControl(ResourceVersion.REVALIDATE)
+                    .body(petService.getPetDTOsByOwnerId(ownerId));
         } else {
             throw new ResourceNotFoundException("Unauthorized to view these pets", "ownerId", ownerId);
         }
@@ -72,17 +90,15 @@ public class PetController {
     // ✅ User can view their own pet by pet ID
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<PetResponseDTO> getPetById(@PathVariable Long id) {
-        String username = SecurityUtil.getCurrentUserLogin()
-                .orElseThrow(() -> new RuntimeException("User not logged in"));
-
-        if (petService.isPetOwnedByUser(id, username) || userService.isAdmin(username)) {
-            logger.info("Fetching pet with ID {}", id);
-            Pet pet = petService.getPetById(id);
-            return ResponseEntity.ok(mapToDTO(pet));
-        } else {
-            throw new ResourceNotFoundException("Unauthorized to view this pet", "petId", id);
+    public ResponseEntity<PetResponseDTO> getPetById(@PathVariable Long id, WebRequest request) {
+        // ✅ PetService checks ownership against the loaded pet, no separate lookup here; the version
+        // query is owner-scoped the same way, so a 304 never answers for someone else's pet
+        Optional<ResourceVersion> version = petService.getPetVersion(id);
+        if (version.isPresent() && version.get().notModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
         }
+        logger.info("Fetching pet with ID {}", id);
+        return ResponseEntity.ok().cacheControl(ResourceVersion.REVALIDATE).body(petService.getPetById(id));
     }
 
     // ✅ User/Admin can create a pet under their ownership
@@ -92,10 +108,9 @@ public class PetController {
         String username = SecurityUtil.getCurrentUserLogin()
                 .orElseThrow(() -> new RuntimeException("User not logged in"));
 
-        if (userService.isCurrentUserOwnerOf(ownerId, username) || userService.isAdmin(username)) {
+        if (userService.isAdmin(username) || userService.isCurrentUserOwnerOf(ownerId, username)) {
             logger.info("Creating pet for owner ID {}", ownerId);
-            Pet createdPet = petService.createPet(ownerId, pet);
-            return ResponseEntity.ok(mapToDTO(createdPet));
+            return ResponseEntity.ok(petService.createPet(ownerId, pet));
         } else {
             throw new ResourceNotFoundException("Unauthorized to create pet for this owner", "ownerId", ownerId);
         }
@@ -105,16 +120,9 @@ public class PetController {
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'SUPERADMIN')")
     public ResponseEntity<PetResponseDTO> updatePet(@PathVariable Long id, @RequestBody Pet pet) {
-        String username = SecurityUtil.getCurrentUserLogin()
-                .orElseThrow(() -> new RuntimeException("User not logged in"));
-
-        if (petService.isPetOwnedByUser(id, username) || userService.isAdmin(username)) {
-            logger.info("Updating pet with ID {}", id);
-            Pet updatedPet = petService.updatePet(id, pet);
-            return ResponseEntity.ok(mapToDTO(updatedPet));
-        } else {
-            throw new ResourceNotFoundException("Unauthorized to update this pet", "petId", id);
-        }
+        // ✅ PetService checks ownership against the loaded pet, no separate lookup here
+        logger.info("Updating pet with ID {}", id);
+        return ResponseEntity.ok(petService.updatePet(id, pet));
     }
 
     // ✅ Only SuperAdmin can delete pets
@@ -125,32 +133,4 @@ public class PetController {
         petService.deletePet(id);
         return ResponseEntity.noContent().build();
     }
-
-    // 🔄 Map Pet entity to PetResponseDTO with null safety
-    private PetResponseDTO mapToDTO(Pet pet) {
-        if (pet == null) return null;
-
-        var owner = pet.getOwner();
-        PetResponseDTO.OwnerDTO ownerDTO = null;
-
-        if (owner != null) {
-            String username = (owner.getUser() != null) ? owner.getUser().getUsername() : null;
-            ownerDTO = new PetResponseDTO.OwnerDTO(
-                    owner.getId(),
-                    owner.getName(),
-                    owner.getEmail(),
-                    owner.getPhone(),
-                    owner.getAddress(),
-                    username
-            );
-        }
-
-        return new PetResponseDTO(
-                pet.getId(),
-                pet.getName(),
-                pet.getBreed(),
-                pet.getBirthDate(),
-                ownerDTO
-        );
-    }
-}
\ No newline at end of file
+}
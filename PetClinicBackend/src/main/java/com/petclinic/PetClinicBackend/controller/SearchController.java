@@ -0,0 +1,33 @@
+package com.petclinic.PetClinicBackend.controller;
+
+import com.petclinic.PetClinicBackend.dto.SearchHit;
+import com.petclinic.PetClinicBackend.service.SearchService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    // 🔎 Typeahead across owners, pets and visits: ?q=&types=OWNER,PET,VISIT&limit=10
+    // Every word must match a word of the document, as a whole word, a prefix or with a typo or two
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public List<SearchHit> search(@RequestParam String q,
+                                  @RequestParam(required = false) Set<SearchService.Type> types,
+                                  @RequestParam(required = false) Integer limit) {
+        return searchService.search(q, types, limit);
+    }
+}
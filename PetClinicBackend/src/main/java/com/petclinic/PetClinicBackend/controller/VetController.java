@@ -1,14 +1,23 @@
 package com.petclinic.PetClinicBackend.controller;
 
+import com.petclinic.PetClinicBackend.dto.AvailableSlot;
+import com.petclinic.PetClinicBackend.dto.CursorPage;
 import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.service.VetDirectory;
 import com.petclinic.PetClinicBackend.service.VetService;
+import com.petclinic.PetClinicBackend.util.ResourceVersion;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -30,21 +39,45 @@ public class VetController {
         return ResponseEntity.ok(vetService.addVet(vet));
     }
 
-    // ✅ Any authenticated user can view all vets
+    // ✅ Any authenticated user can view all vets (optionally ?specialization=); served from the vet directory snapshot
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public List<Vet> getAllVets() {
-        logger.info("Fetching all vets");
-        return vetService.getAllVets();
+    public ResponseEntity<byte[]> getAllVets(@RequestParam(required = false) String specialization,
+                                             WebRequest request) {
+        return snapshotResponse(specialization != null
+                ? vetService.getVetsBySpecializationSnapshot(specialization)
+                : vetService.getAllVetsSnapshot(), request);
+    }
+
+    // 🔎 Earliest free slots across vets of a specialization:
+    // ?specialization=&from=yyyy-MM-dd&to=yyyy-MM-dd&duration=30&limit=5
+    @GetMapping("/available-slots")
+    @PreAuthorize("isAuthenticated()")
+    public List<AvailableSlot> getAvailableSlots(
+            @RequestParam String specialization,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer duration,
+            @RequestParam(required = false) Integer limit) {
+        return vetService.findAvailableSlots(specialization, from, to, duration, limit);
+    }
+
+    // 📄 Keyset-paginated vets: ?size=&cursor=&sort=name,asc&count=true
+    @GetMapping("/page")
+    @PreAuthorize("isAuthenticated()")
+    public CursorPage<Vet> getVetPage(@RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) Integer size,
+                                      @RequestParam(required = false) String sort,
+                                      @RequestParam(defaultValue = "false") boolean count) {
+        return vetService.getVetPage(cursor, size, sort, count);
     }
 
     // ✅ Any authenticated user can fetch vet by ID
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Vet> getVetById(@PathVariable Long id) {
-        logger.info("Fetching vet with ID {}", id);
-        return vetService.getVetById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> getVetById(@PathVariable Long id, WebRequest request) {
+        return vetService.getVetSnapshotById(id)
+                .map(entry -> snapshotResponse(entry, request))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -70,4 +103,15 @@ public class VetController {
         vetService.deleteVet(id);
         return ResponseEntity.ok("Vet deleted successfully.");
     }
+
+    // 🏷️ 304 when the client's ETag / Last-Modified still matches the snapshot entry, otherwise its JSON bytes
+    private static ResponseEntity<byte[]> snapshotResponse(VetDirectory.Entry entry, WebRequest request) {
+        if (entry.version().notModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(ResourceVersion.REVALIDATE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(entry.json());
+    }
 }
@@ -1,17 +1,31 @@
 package com.petclinic.PetClinicBackend.controller;
 
 import com.petclinic.PetClinicBackend.config.SecurityUtil;
+import com.petclinic.PetClinicBackend.dto.CursorPage;
 import com.petclinic.PetClinicBackend.dto.VisitRequest;
+import com.petclinic.PetClinicBackend.dto.VisitView;
 import com.petclinic.PetClinicBackend.model.Pet;
-import com.petclinic.PetClinicBackend.model.Vet;
 import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.service.OwnerHomeCache;
 import com.petclinic.PetClinicBackend.service.UserService;
+import com.petclinic.PetClinicBackend.service.VisitExportService;
 import com.petclinic.PetClinicBackend.service.VisitService;
+import com.petclinic.PetClinicBackend.util.ResourceVersion;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 @RestController
@@ -20,73 +34,148 @@ public class VisitController {
 
     private final VisitService visitService;
     private final UserService userService;
+    private final VisitExportService visitExportService;
 
-    public VisitController(VisitService visitService, UserService userService) {
+    public VisitController(VisitService visitService, UserService userService, VisitExportService visitExportService) {
         this.visitService = visitService;
         this.userService = userService;
+        this.visitExportService = visitExportService;
     }
 
-    // ✅ Create a new visit
+    // ✅ Create a new visit; without a vetId, the least-loaded vet of request.specialization is assigned
     @PostMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<Visit> createVisit(@RequestBody VisitRequest request) {
-        try {
-            Pet pet = visitService.getPetById(request.getPetId());
-            Vet vet = visitService.getVetById(request.getVetId());
-
-            Visit visit = new Visit();
-            visit.setVisitDate(request.getDate());
-            visit.setDescription(request.getDescription());
-            visit.setPet(pet);
-            visit.setVet(vet);
-
-            Visit savedVisit = visitService.saveVisit(visit);
-            return ResponseEntity.status(201).body(savedVisit);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(null);
+    public ResponseEntity<VisitView> createVisit(@RequestBody VisitRequest request) {
+        // Failures propagate to GlobalExceptionHandler: 409 slot taken, 400 bad input, 404 unknown pet or vet
+        Pet pet = visitService.getPetById(request.getPetId());
+
+        Visit visit = new Visit();
+        visit.setVisitDate(request.getDate());
+        visit.setStartTime(request.getStartTime());
+        visit.setDurationMinutes(request.getDurationMinutes());
+        visit.setDescription(request.getDescription());
+        visit.setPet(pet);
+
+        Visit savedVisit;
+        if (request.getVetId() != null) {
+            visit.setVet(visitService.getVetById(request.getVetId()));
+            savedVisit = visitService.saveVisit(visit);
+        } else {
+            savedVisit = visitService.saveVisitWithAssignedVet(visit, request.getSpecialization());
         }
+        return ResponseEntity.status(201).body(VisitView.from(savedVisit));
     }
 
     // ✅ Get visits for the currently logged-in user
     @GetMapping("/mine")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<Visit>> getMyVisits() {
+    public ResponseEntity<List<VisitView>> getMyVisits(WebRequest request) {
         String username = SecurityUtil.getCurrentUserLogin()
                 .orElseThrow(() -> new RuntimeException("User not logged in"));
 
-        List<Visit> visits = visitService.getVisitsForCurrentUser(username);
-        return ResponseEntity.ok(visits);
+        OwnerHomeCache.Entry<List<VisitView>> mine = visitService.getMyVisitsEntry(username);
+        if (mine.version().notModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok().cacheControl(ResourceVersion.REVALIDATE).body(mine.body());
     }
 
     // ✅ Get all visits (Admin/SuperAdmin only)
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<List<Visit>> getAllVisits() {
-        List<Visit> visits = visitService.getAllVisits();
+    public ResponseEntity<List<VisitView>> getAllVisits() {
+        List<VisitView> visits = visitService.getAllVisitViews();
         return ResponseEntity.ok(visits);
     }
 
+    // 📄 Keyset-paginated visits (Admin/SuperAdmin only): ?size=&cursor=&sort=visitDate,desc&count=true
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<CursorPage<VisitView>> getVisitPage(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer size,
+                                                              @RequestParam(required = false) String sort,
+                                                              @RequestParam(defaultValue = "false") boolean count) {
+        return ResponseEntity.ok(visitService.getVisitPage(cursor, size, sort, count));
+    }
+
+    // 🔎 Filtered, keyset-paginated visits (Admin/SuperAdmin only), every filter applied in SQL:
+    // ?status=&vetId=&ownerId=&petId=&from=yyyy-MM-dd&to=yyyy-MM-dd&size=&cursor=&sort=visitDate,desc&count=true
+    // Past visits.search.count-threshold matches, the total may be an estimate (totalEstimated=true)
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<CursorPage<VisitView>> searchVisits(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long vetId,
+            @RequestParam(required = false) Long ownerId,
+            @RequestParam(required = false) Long petId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "false") boolean count) {
+        VisitStatus visitStatus = null;
+        if (status != null && !status.isBlank()) {
+            try {
+                visitStatus = VisitStatus.valueOf(status.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported visit status: " + status);
+            }
+        }
+        VisitService.SearchFilter filter = new VisitService.SearchFilter(visitStatus, vetId, ownerId, petId, from, to);
+        return ResponseEntity.ok(visitService.searchVisits(filter, cursor, size, sort, count));
+    }
+
+    // 📤 Streamed export (Admin/SuperAdmin only): ?format=ndjson|csv&from=yyyy-MM-dd&to=yyyy-MM-dd&vetId=
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportVisits(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long vetId) {
+        VisitExportService.Format exportFormat;
+        try {
+            exportFormat = VisitExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        visitExportService.validateRange(from, to);
+
+        StreamingResponseBody body = out -> visitExportService.export(from, to, vetId, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("visits-" + LocalDate.now() + "." + exportFormat.getExtension())
+                        .build().toString())
+                .body(body);
+    }
+
     // ✅ Get visit by ID
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<Visit> getVisitById(@PathVariable Long id) {
-        return visitService.getVisitById(id)
-                .map(ResponseEntity::ok)
+    public ResponseEntity<VisitView> getVisitById(@PathVariable Long id, WebRequest request) {
+        Optional<ResourceVersion> version = visitService.getVisitVersion(id);
+        if (version.isPresent() && version.get().notModified(request)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return visitService.getVisitViewById(id)
+                .map(visit -> ResponseEntity.ok().cacheControl(ResourceVersion.REVALIDATE).body(visit))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // ✅ Get visits by pet ID
     @GetMapping("/pet/{petId}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<List<Visit>> getVisitsByPetId(@PathVariable Long petId) {
-        List<Visit> visits = visitService.getVisitsByPetId(petId);
+    public ResponseEntity<List<VisitView>> getVisitsByPetId(@PathVariable Long petId) {
+        List<VisitView> visits = visitService.getVisitViewsByPetId(petId);
         return ResponseEntity.ok(visits);
     }
 
     // ✅ Update a visit
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'SUPERADMIN')")
-    public ResponseEntity<Visit> updateVisit(@PathVariable Long id, @RequestBody Visit updatedVisit) {
+    public ResponseEntity<VisitView> updateVisit(@PathVariable Long id, @RequestBody Visit updatedVisit) {
         Optional<Visit> existingVisitOpt = visitService.getVisitById(id);
 
         if (existingVisitOpt.isPresent()) {
@@ -97,6 +186,14 @@ public class VisitController {
                 existingVisit.setVisitDate(updatedVisit.getVisitDate());
             }
 
+            if (updatedVisit.getStartTime() != null) {
+                existingVisit.setStartTime(updatedVisit.getStartTime());
+            }
+
+            if (updatedVisit.getDurationMinutes() != null) {
+                existingVisit.setDurationMinutes(updatedVisit.getDurationMinutes());
+            }
+
             if (updatedVisit.getDescription() != null) {
                 existingVisit.setDescription(updatedVisit.getDescription());
             }
@@ -114,7 +211,7 @@ public class VisitController {
             }
 
             Visit saved = visitService.saveVisit(existingVisit);
-            return ResponseEntity.ok(saved);
+            return ResponseEntity.ok(VisitView.from(saved));
         } else {
             return ResponseEntity.notFound().build();
         }
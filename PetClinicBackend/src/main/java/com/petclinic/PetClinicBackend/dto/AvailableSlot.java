@@ -0,0 +1,52 @@
+package com.petclinic.PetClinicBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// 🔎 One bookable start from GET /api/vets/available-slots: POST it back as date/startTime/vetId to book it
+public class AvailableSlot {
+
+    private Long vetId;
+    private String vetName;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate date;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    private Integer durationMinutes;
+
+    public AvailableSlot() {
+    }
+
+    public AvailableSlot(Long vetId, String vetName, LocalDate date, LocalTime startTime, Integer durationMinutes) {
+        this.vetId = vetId;
+        this.vetName = vetName;
+        this.date = date;
+        this.startTime = startTime;
+        this.durationMinutes = durationMinutes;
+    }
+
+    public Long getVetId() {
+        return vetId;
+    }
+
+    public String getVetName() {
+        return vetName;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+}
@@ -0,0 +1,94 @@
+package com.petclinic.PetClinicBackend.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public class ClinicStatsDTO {
+
+    private long totalOwners;
+    private long totalPets;
+    private long totalVets;
+    private long totalVisits;
+    private Map<String, Long> visitsByStatus;
+    private Map<String, Long> visitsByMonth; // "yyyy-MM" → count
+    private List<VetVisitCount> visitsByVet;
+    private Instant lastReconciledAt;
+
+    public ClinicStatsDTO() {
+    }
+
+    public ClinicStatsDTO(long totalOwners, long totalPets, long totalVets, long totalVisits,
+                          Map<String, Long> visitsByStatus, Map<String, Long> visitsByMonth,
+                          List<VetVisitCount> visitsByVet, Instant lastReconciledAt) {
+        this.totalOwners = totalOwners;
+        this.totalPets = totalPets;
+        this.totalVets = totalVets;
+        this.totalVisits = totalVisits;
+        this.visitsByStatus = visitsByStatus;
+        this.visitsByMonth = visitsByMonth;
+        this.visitsByVet = visitsByVet;
+        this.lastReconciledAt = lastReconciledAt;
+    }
+
+    public long getTotalOwners() {
+        return totalOwners;
+    }
+
+    public long getTotalPets() {
+        return totalPets;
+    }
+
+    public long getTotalVets() {
+        return totalVets;
+    }
+
+    public long getTotalVisits() {
+        return totalVisits;
+    }
+
+    public Map<String, Long> getVisitsByStatus() {
+        return visitsByStatus;
+    }
+
+    public Map<String, Long> getVisitsByMonth() {
+        return visitsByMonth;
+    }
+
+    public List<VetVisitCount> getVisitsByVet() {
+        return visitsByVet;
+    }
+
+    public Instant getLastReconciledAt() {
+        return lastReconciledAt;
+    }
+
+    // --- Nested DTO for per-vet counts ---
+    public static class VetVisitCount {
+
+        private Long vetId;
+        private String vetName;
+        private long visits;
+
+        public VetVisitCount() {
+        }
+
+        public VetVisitCount(Long vetId, String vetName, long visits) {
+            this.vetId = vetId;
+            this.vetName = vetName;
+            this.visits = visits;
+        }
+
+        public Long getVetId() {
+            return vetId;
+        }
+
+        public String getVetName() {
+            return vetName;
+        }
+
+        public long getVisits() {
+            return visits;
+        }
+    }
+}
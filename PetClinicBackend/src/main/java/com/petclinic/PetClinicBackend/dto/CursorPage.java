@@ -0,0 +1,56 @@
+package com.petclinic.PetClinicBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// 📄 One keyset page: pass nextCursor back as ?cursor= to continue; null means last page
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+
+    private List<T> items;
+    private String nextCursor;
+    private Long total; // only when ?count=true
+    private Boolean totalEstimated; // true when total is an estimate rather than an exact count
+
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> items, String nextCursor, Long total) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public Boolean getTotalEstimated() {
+        return totalEstimated;
+    }
+
+    public void setTotalEstimated(Boolean totalEstimated) {
+        this.totalEstimated = totalEstimated;
+    }
+}
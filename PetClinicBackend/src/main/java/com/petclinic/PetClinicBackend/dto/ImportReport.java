@@ -0,0 +1,100 @@
+package com.petclinic.PetClinicBackend.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+// 📥 Progress / result of a bulk CSV import; errors are capped, failedRows is the full count
+public class ImportReport {
+
+    private boolean running;
+    private long rowsRead;
+    private long ownersImported;
+    private long petsImported;
+    private long visitsImported;
+    private long failedRows;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+    private Instant startedAt;
+    private long elapsedMillis;
+
+    public ImportReport() {
+    }
+
+    public ImportReport(boolean running, long rowsRead, long ownersImported, long petsImported, long visitsImported,
+                        long failedRows, List<RowError> errors, boolean errorsTruncated,
+                        Instant startedAt, long elapsedMillis) {
+        this.running = running;
+        this.rowsRead = rowsRead;
+        this.ownersImported = ownersImported;
+        this.petsImported = petsImported;
+        this.visitsImported = visitsImported;
+        this.failedRows = failedRows;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+        this.startedAt = startedAt;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getOwnersImported() {
+        return ownersImported;
+    }
+
+    public long getPetsImported() {
+        return petsImported;
+    }
+
+    public long getVisitsImported() {
+        return visitsImported;
+    }
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // --- Nested DTO for a rejected CSV line ---
+    public static class RowError {
+
+        private long line;
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
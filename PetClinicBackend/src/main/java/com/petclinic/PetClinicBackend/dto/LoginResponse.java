@@ -5,6 +5,7 @@ package com.petclinic.PetClinicBackend.dto;
 
 public class LoginResponse {
     private String token;
+    private String refreshToken;
 
 
     public String getToken() {
@@ -15,10 +16,23 @@ public class LoginResponse {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public LoginResponse(String token) {
         this.token = token;
     }
 
+    public LoginResponse(String token, String refreshToken) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+    }
+
     public LoginResponse(){
 
     }
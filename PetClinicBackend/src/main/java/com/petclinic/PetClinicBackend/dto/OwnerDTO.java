@@ -15,6 +15,16 @@ public class OwnerDTO {
         // default constructor
     }
 
+    // Constructor for JPQL constructor expressions
+    public OwnerDTO(Long id, String name, String email, String phone, String address, String username) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.phone = phone;
+        this.address = address;
+        this.username = username;
+    }
+
     // Constructor to map Owner entity to OwnerDTO
     public OwnerDTO(Owner owner) {
         this.id = owner.getId();
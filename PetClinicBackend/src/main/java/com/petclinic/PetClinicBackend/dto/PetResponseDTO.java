@@ -1,5 +1,8 @@
 package com.petclinic.PetClinicBackend.dto;
 
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+
 import java.time.LocalDate;
 
 public class PetResponseDTO {
@@ -22,6 +25,26 @@ public class PetResponseDTO {
         this.owner = owner;
     }
 
+    // Flat constructor for JPQL constructor expressions (pet ⋈ owner ⋈ user in one query)
+    public PetResponseDTO(Long id, String name, String breed, LocalDate birthDate,
+                          Long ownerId, String ownerName, String ownerEmail, String ownerPhone,
+                          String ownerAddress, String ownerUsername) {
+        this(id, name, breed, birthDate, ownerId == null ? null
+                : new OwnerDTO(ownerId, ownerName, ownerEmail, ownerPhone, ownerAddress, ownerUsername));
+    }
+
+    // Map a Pet entity; call inside the transaction that loaded it (owner.user is lazy)
+    public PetResponseDTO(Pet pet) {
+        this(pet.getId(), pet.getName(), pet.getBreed(), pet.getBirthDate(), toOwnerDTO(pet.getOwner()));
+    }
+
+    private static OwnerDTO toOwnerDTO(Owner owner) {
+        if (owner == null) return null;
+        String username = owner.getUser() != null ? owner.getUser().getUsername() : null;
+        return new OwnerDTO(owner.getId(), owner.getName(), owner.getEmail(), owner.getPhone(),
+                owner.getAddress(), username);
+    }
+
     // --- Getters & Setters ---
     public Long getId() {
         return id;
@@ -0,0 +1,45 @@
+package com.petclinic.PetClinicBackend.dto;
+
+import com.petclinic.PetClinicBackend.service.SearchService;
+
+// 🔎 One typeahead result from GET /api/search: title is the name (owner, pet) or description (visit), detail the
+// other indexed fields
+public class SearchHit {
+
+    private SearchService.Type type;
+    private Long id;
+    private String title;
+    private String detail;
+    private int score;
+
+    public SearchHit() {
+    }
+
+    public SearchHit(SearchService.Type type, Long id, String title, String detail, int score) {
+        this.type = type;
+        this.id = id;
+        this.title = title;
+        this.detail = detail;
+        this.score = score;
+    }
+
+    public SearchService.Type getType() {
+        return type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public int getScore() {
+        return score;
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.*;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 
 
 public class VisitRequest {
@@ -18,9 +19,18 @@ public class VisitRequest {
     @NotNull
     private Long petId;
 
-    @NotNull
+    // ⚖️ Leave vetId out and give a specialization to have the least-loaded vet of that specialization assigned
     private Long vetId;
 
+    private String specialization;
+
+    // 🗓️ Optional: a timed visit books vet slots; duration defaults to booking.default-duration-minutes
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    @Positive
+    private Integer durationMinutes;
+
     public @NotNull LocalDate getDate() {
         return date;
     }
@@ -45,11 +55,35 @@ public class VisitRequest {
         this.petId = petId;
     }
 
-    public @NotNull Long getVetId() {
+    public Long getVetId() {
         return vetId;
     }
 
-    public void setVetId(@NotNull Long vetId) {
+    public void setVetId(Long vetId) {
         this.vetId = vetId;
     }
+
+    public String getSpecialization() {
+        return specialization;
+    }
+
+    public void setSpecialization(String specialization) {
+        this.specialization = specialization;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public @Positive Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(@Positive Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
 }
\ No newline at end of file
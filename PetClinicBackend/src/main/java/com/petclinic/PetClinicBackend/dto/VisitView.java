@@ -0,0 +1,148 @@
+package com.petclinic.PetClinicBackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// 📖 Read model for visit endpoints: same JSON shape as the Visit entity, but fully loaded before serialization
+public class VisitView {
+
+    private Long id;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate visitDate;
+
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    private Integer durationMinutes;
+    private String description;
+    private VisitStatus status;
+    private PetSummary pet;
+    private VetSummary vet;
+
+    public VisitView() {
+    }
+
+    // Flat constructor for JPQL constructor expressions (visit ⋈ pet ⋈ vet in one query)
+    public VisitView(Long id, LocalDate visitDate, LocalTime startTime, Integer durationMinutes,
+                     String description, VisitStatus status,
+                     Long petId, String petName, String petBreed, Long ownerId,
+                     Long vetId, String vetName, String vetSpecialization) {
+        this.id = id;
+        this.visitDate = visitDate;
+        this.startTime = startTime;
+        this.durationMinutes = durationMinutes;
+        this.description = description;
+        this.status = status;
+        this.pet = new PetSummary(petId, petName, petBreed, ownerId);
+        this.vet = new VetSummary(vetId, vetName, vetSpecialization);
+    }
+
+    // Map a Visit whose pet and vet are already initialized (e.g. right after save)
+    public static VisitView from(Visit visit) {
+        Pet pet = visit.getPet();
+        Vet vet = visit.getVet();
+        return new VisitView(visit.getId(), visit.getVisitDate(), visit.getStartTime(), visit.getDurationMinutes(),
+                visit.getDescription(), visit.getStatus(),
+                pet.getId(), pet.getName(), pet.getBreed(), pet.getOwner() != null ? pet.getOwner().getId() : null,
+                vet.getId(), vet.getName(), vet.getSpecialization());
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDate getVisitDate() {
+        return visitDate;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public VisitStatus getStatus() {
+        return status;
+    }
+
+    public PetSummary getPet() {
+        return pet;
+    }
+
+    public VetSummary getVet() {
+        return vet;
+    }
+
+    public static class PetSummary {
+        private Long id;
+        private String name;
+        private String breed;
+        private Long ownerId;
+
+        public PetSummary() {
+        }
+
+        public PetSummary(Long id, String name, String breed, Long ownerId) {
+            this.id = id;
+            this.name = name;
+            this.breed = breed;
+            this.ownerId = ownerId;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getBreed() {
+            return breed;
+        }
+
+        public Long getOwnerId() {
+            return ownerId;
+        }
+    }
+
+    public static class VetSummary {
+        private Long id;
+        private String name;
+        private String specialization;
+
+        public VetSummary() {
+        }
+
+        public VetSummary(Long id, String name, String specialization) {
+            this.id = id;
+            this.name = name;
+            this.specialization = specialization;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSpecialization() {
+            return specialization;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.petclinic.PetClinicBackend.exception;
+
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.petclinic.PetClinicBackend.exception;
+
+// 🗓️ The requested vet slots are already booked (409)
+public class SlotUnavailableException extends RuntimeException {
+
+    public SlotUnavailableException(Long vetId, Object date, Object startTime) {
+        super(String.format("Vet %s is not available on %s at %s", vetId, date, startTime));
+    }
+
+    public SlotUnavailableException(String message) {
+        super(message);
+    }
+}
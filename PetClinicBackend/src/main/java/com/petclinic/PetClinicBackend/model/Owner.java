@@ -1,16 +1,33 @@
 package com.petclinic.PetClinicBackend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.petclinic.PetClinicBackend.service.ClinicStatsListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.List;
 
 @Entity
-@Table(name = "owner")
+@EntityListeners(ClinicStatsListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 🗃️ L2: read on nearly every request (ownership, profile)
+@NaturalIdCache
+@Table(name = "owner", indexes = {
+        @Index(name = "ux_owner_user", columnList = "user_id", unique = true),
+        @Index(name = "idx_owner_email", columnList = "email")
+})
 public class Owner {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "owner_id")
+    @TableGenerator(name = "owner_id", table = "id_sequence", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "owner", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -18,15 +35,26 @@ public class Owner {
     private String phone;
     private String address;
 
+    @NaturalId(mutable = true) // owner of a login: users.email → user (natural id) → owner (natural id)
     @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
     private User user;
 
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties("owner")
     private List<Pet> pets;
 
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    @JsonIgnore
+    private Instant lastModified;
+
     // 🔹 Constructors
     public Owner() {
     }
@@ -99,6 +127,14 @@ public class Owner {
         this.pets = pets;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
     // 🔹 toString (useful for debugging)
     @Override
     public String toString() {
@@ -1,15 +1,27 @@
 package com.petclinic.PetClinicBackend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.petclinic.PetClinicBackend.service.ClinicStatsListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners(ClinicStatsListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "pet", indexes = @Index(name = "idx_pet_owner", columnList = "owner_id"))
 public class Pet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "pet_id")
+    @TableGenerator(name = "pet_id", table = "id_sequence", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "pet", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -23,6 +35,15 @@ public class Pet {
     @JsonIgnoreProperties({"pets"})  // Prevents infinite recursion during serialization
     private Owner owner;
 
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    @JsonIgnore
+    private Instant lastModified;
+
     // No-arg constructor
     public Pet() {}
 
@@ -76,6 +97,14 @@ public class Pet {
         this.owner = owner;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
     // Builder pattern
     public static class Builder {
         private Long id;
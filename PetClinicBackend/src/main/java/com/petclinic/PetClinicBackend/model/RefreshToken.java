@@ -0,0 +1,122 @@
+package com.petclinic.PetClinicBackend.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_family", columnList = "familyId"),
+        @Index(name = "idx_refresh_token_email", columnList = "email"),
+        @Index(name = "idx_refresh_token_expires", columnList = "expiresAt")
+})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 🔐 SHA-256 of the opaque token; the raw value is never stored
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    // 🔹 All tokens rotated from the same login share a family
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private boolean used = false;
+
+    @Column(nullable = false)
+    private boolean revoked = false;
+
+    // 🔄 Set on rotation: when, and the successor sealed with a key only the rotated raw token derives
+    private Instant usedAt;
+
+    @Column(length = 128)
+    private String sealedSuccessor;
+
+    public RefreshToken() {
+    }
+
+    public RefreshToken(String tokenHash, String familyId, String email, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.email = email;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isUsed() {
+        return used;
+    }
+
+    public void setUsed(boolean used) {
+        this.used = used;
+    }
+
+    public boolean isRevoked() {
+        return revoked;
+    }
+
+    public void setRevoked(boolean revoked) {
+        this.revoked = revoked;
+    }
+
+    public Instant getUsedAt() {
+        return usedAt;
+    }
+
+    public void setUsedAt(Instant usedAt) {
+        this.usedAt = usedAt;
+    }
+
+    public String getSealedSuccessor() {
+        return sealedSuccessor;
+    }
+
+    public void setSealedSuccessor(String sealedSuccessor) {
+        this.sealedSuccessor = sealedSuccessor;
+    }
+}
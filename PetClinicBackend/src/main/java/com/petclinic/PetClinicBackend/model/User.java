@@ -5,6 +5,10 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
@@ -13,6 +17,9 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // 🗃️ L2 with its roles, so login-email lookups resolve from memory
+@NaturalIdCache
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
@@ -30,6 +37,7 @@ public class User {
 
     @Email(message = "Email should be valid")
     @NotBlank(message = "Email is required")
+    @NaturalId(mutable = true)
     @Column(unique = true, nullable = false)
     private String email;
 
@@ -41,9 +49,11 @@ public class User {
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
-            inverseJoinColumns = @JoinColumn(name = "role_id")
+            inverseJoinColumns = @JoinColumn(name = "role_id"),
+            indexes = @Index(name = "idx_user_roles_role", columnList = "role_id, user_id")
     )
     @JsonIgnoreProperties("users")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Role> roles = new HashSet<>();
 
     // === Getters and Setters ===
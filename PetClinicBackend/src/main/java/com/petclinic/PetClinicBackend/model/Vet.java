@@ -1,12 +1,20 @@
 package com.petclinic.PetClinicBackend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.petclinic.PetClinicBackend.service.ClinicStatsListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
+@EntityListeners(ClinicStatsListener.class)
 public class Vet {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "vet_id")
+    @TableGenerator(name = "vet_id", table = "id_sequence", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "vet", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -17,6 +25,15 @@ public class Vet {
 
     private String specialization;
 
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    @JsonIgnore
+    private Instant lastModified;
+
     // --- Getters & Setters ---
 
 
@@ -61,6 +78,14 @@ public class Vet {
         this.specialization = specialization;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
     // --- Optional: toString for logging/debugging ---
 
     @Override
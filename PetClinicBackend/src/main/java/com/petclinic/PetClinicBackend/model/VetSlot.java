@@ -0,0 +1,88 @@
+package com.petclinic.PetClinicBackend.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * 🗓️ One booked slot of a vet's day, held by a timed visit (one row per slot the visit covers). The primary key
+ * is the booking guarantee: a second visit in the same vet slot fails on insert, across application instances.
+ */
+@Entity
+@IdClass(VetSlot.Key.class)
+@Table(name = "vet_slot", indexes = @Index(name = "idx_vet_slot_visit", columnList = "visit_id"))
+public class VetSlot {
+
+    @Id
+    @Column(name = "vet_id")
+    private Long vetId;
+
+    @Id
+    @Column(name = "slot_date")
+    private LocalDate slotDate;
+
+    // Index of the slot within the day (see BookingEngine's slot grid)
+    @Id
+    @Column(name = "slot")
+    private Integer slot;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "visit_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Visit visit;
+
+    public VetSlot() {}
+
+    public VetSlot(Long vetId, LocalDate slotDate, Integer slot, Visit visit) {
+        this.vetId = vetId;
+        this.slotDate = slotDate;
+        this.slot = slot;
+        this.visit = visit;
+    }
+
+    public Long getVetId() {
+        return vetId;
+    }
+
+    public LocalDate getSlotDate() {
+        return slotDate;
+    }
+
+    public Integer getSlot() {
+        return slot;
+    }
+
+    public Visit getVisit() {
+        return visit;
+    }
+
+    public static class Key implements Serializable {
+
+        private Long vetId;
+        private LocalDate slotDate;
+        private Integer slot;
+
+        public Key() {}
+
+        public Key(Long vetId, LocalDate slotDate, Integer slot) {
+            this.vetId = vetId;
+            this.slotDate = slotDate;
+            this.slot = slot;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(vetId, key.vetId)
+                    && Objects.equals(slotDate, key.slotDate) && Objects.equals(slot, key.slot);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(vetId, slotDate, slot);
+        }
+    }
+}
@@ -1,22 +1,50 @@
 package com.petclinic.PetClinicBackend.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import com.petclinic.PetClinicBackend.service.ClinicStatsListener;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
 
 @Entity
+@EntityListeners(ClinicStatsListener.class)
+@FilterDef(name = "ownerScope", parameters = @ParamDef(name = "ownerId", type = Long.class))
+@Filter(name = "ownerScope", condition = "pet_id IN (SELECT p.id FROM pet p WHERE p.owner_id = :ownerId)") // 🔐 OwnerScope
+@Table(name = "visit", indexes = {
+        @Index(name = "idx_visit_pet_date", columnList = "pet_id, visit_date"),
+        @Index(name = "idx_visit_vet_date_status", columnList = "vet_id, visit_date, status"),
+        @Index(name = "idx_visit_date", columnList = "visit_date, id"),
+        @Index(name = "idx_visit_status_date", columnList = "status, visit_date, id")
+})
 public class Visit {
 
+    // 🆔 Ids come from a pooled table generator (50 per round trip), so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "visit_id")
+    @TableGenerator(name = "visit_id", table = "id_sequence", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "visit", allocationSize = 50)
     private Long id;
 
     @JsonFormat(pattern = "yyyy-MM-dd") // ✅ Format date in JSON responses
     @Column(nullable = false)
     private LocalDate visitDate;
 
+    // 🗓️ Timed visits occupy vet slots (see VetSlot); visits without a start time occupy none
+    @JsonFormat(pattern = "HH:mm")
+    @Column(name = "start_time")
+    private LocalTime startTime;
+
+    @Column(name = "duration_minutes")
+    private Integer durationMinutes;
+
     @Column(nullable = false)
     private String description;
 
@@ -34,6 +62,26 @@ public class Visit {
     @Column(nullable = false)
     private VisitStatus status = VisitStatus.UPCOMING;
 
+    // 🏷️ Optimistic-lock version and last change time; they back the ETag / Last-Modified of GET responses
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "last_modified")
+    @JsonIgnore
+    private Instant lastModified;
+
+    // 📊 Last persisted status/vet/date, so listeners can diff an update (not mapped)
+    @Transient
+    private VisitStatus persistedStatus;
+
+    @Transient
+    private Long persistedVetId;
+
+    @Transient
+    private LocalDate persistedVisitDate;
+
     // --- Constructors ---
     public Visit() {}
 
@@ -63,6 +111,22 @@ public class Visit {
         this.visitDate = visitDate;
     }
 
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public Integer getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(Integer durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -95,12 +159,43 @@ public class Visit {
         this.status = status;
     }
 
+    public void capturePersistedState() {
+        this.persistedStatus = status;
+        this.persistedVetId = vet != null ? vet.getId() : null;
+        this.persistedVisitDate = visitDate;
+    }
+
+    @JsonIgnore
+    public VisitStatus getPersistedStatus() {
+        return persistedStatus;
+    }
+
+    @JsonIgnore
+    public Long getPersistedVetId() {
+        return persistedVetId;
+    }
+
+    @JsonIgnore
+    public LocalDate getPersistedVisitDate() {
+        return persistedVisitDate;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
     // --- toString (for debugging/logging) ---
     @Override
     public String toString() {
         return "Visit{" +
                 "id=" + id +
                 ", visitDate=" + visitDate +
+                ", startTime=" + startTime +
+                ", durationMinutes=" + durationMinutes +
                 ", description='" + description + '\'' +
                 ", petId=" + (pet != null ? pet.getId() : "null") +
                 ", vetId=" + (vet != null ? vet.getId() : "null") +
@@ -1,25 +1,73 @@
 package com.petclinic.PetClinicBackend.repository;
 
+import com.petclinic.PetClinicBackend.dto.OwnerDTO;
 import com.petclinic.PetClinicBackend.model.Owner;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
-public interface OwnerRepository extends JpaRepository<Owner, Long> {
+public interface OwnerRepository extends JpaRepository<Owner, Long>, JpaSpecificationExecutor<Owner> {
 
     // 🔹 Used during registration and profile lookup
     Optional<Owner> findByEmail(String email);
     boolean existsByEmail(String email);
 
+    // 🔹 User is lazy and open-in-view is off: load it with the owner for callers that map it to OwnerDTO
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Optional<Owner> findById(Long id);
+
     // 🔹 Used in SecurityUtil-based lookups and OwnerController
+    @EntityGraph(attributePaths = "user")
     Optional<Owner> findByUser_Email(String email);
     boolean existsByUser_Email(String email);
 
+    // 🔹 Owner id only, for the JWT ownerId claim
+    @Query("SELECT o.id FROM Owner o WHERE o.user.email = ?1")
+    Optional<Long> findIdByUserEmail(String email);
+
     // 🔹 Used in fallback lookups via userId
     Optional<Owner> findByUser_Id(Long userId);
 
+    // 📦 DTO projections: owner + username in one query, never the lazy pets/user graph
+    String OWNER_DTO_SELECT = "SELECT new com.petclinic.PetClinicBackend.dto.OwnerDTO("
+            + "o.id, o.name, o.email, o.phone, o.address, u.username) "
+            + "FROM Owner o LEFT JOIN o.user u ";
+
+    @Query(OWNER_DTO_SELECT + "ORDER BY o.id")
+    List<OwnerDTO> findAllAsDTO();
+
+    @Query(OWNER_DTO_SELECT + "WHERE o.id = ?1")
+    Optional<OwnerDTO> findDTOById(Long id);
+
+    @Query(OWNER_DTO_SELECT + "WHERE u.email = ?1")
+    Optional<OwnerDTO> findDTOByUserEmail(String email);
+
+    // 🏷️ Conditional GET: the columns an owner's ETag / Last-Modified are computed from, no entity load.
+    // OwnerDTO.username comes from the linked user, so its id and username are part of the version too.
+    String OWNER_VERSION_SELECT = "SELECT o.id, o.version, o.lastModified, u.id, u.username FROM Owner o "
+            + "LEFT JOIN o.user u ";
+
+    @Query(OWNER_VERSION_SELECT + "WHERE o.id = ?1")
+    List<Object[]> findVersionById(Long id);
+
+    // 🔎 Search index rows (id, version, name, email, phone): all of them, or those changed since a time
+    String OWNER_SEARCH_SELECT = "SELECT o.id, o.version, o.name, o.email, o.phone FROM Owner o ";
+
+    @Query(OWNER_SEARCH_SELECT)
+    List<Object[]> findSearchRows();
+
+    @Query(OWNER_SEARCH_SELECT + "WHERE o.lastModified >= ?1")
+    List<Object[]> findSearchRowsModifiedSince(Instant since);
+
+    @Query("SELECT o.id FROM Owner o")
+    List<Long> findAllIds();
+
     // 🔹 Useful for dashboards and admin filters
     @Query("SELECT o FROM Owner o JOIN o.user u JOIN u.roles r WHERE r.name = 'ROLE_USER'")
     List<Owner> findAllOwnersWithUserRole();
@@ -1,10 +1,55 @@
 package com.petclinic.PetClinicBackend.repository;
 
+import com.petclinic.PetClinicBackend.dto.PetResponseDTO;
 import com.petclinic.PetClinicBackend.model.Pet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
-public interface PetRepository extends JpaRepository<Pet, Long> {
+public interface PetRepository extends JpaRepository<Pet, Long>, JpaSpecificationExecutor<Pet> {
     List<Pet> findByOwnerId(Long ownerId);
+
+    // 📦 DTO projections: pet, owner and username in a single join query (no N+1)
+    String PET_DTO_SELECT = "SELECT new com.petclinic.PetClinicBackend.dto.PetResponseDTO("
+            + "p.id, p.name, p.breed, p.birthDate, o.id, o.name, o.email, o.phone, o.address, u.username) "
+            + "FROM Pet p JOIN p.owner o LEFT JOIN o.user u ";
+
+    @Query(PET_DTO_SELECT + "ORDER BY p.id")
+    List<PetResponseDTO> findAllAsDTO();
+
+    @Query(PET_DTO_SELECT + "WHERE o.id = ?1 ORDER BY p.id")
+    List<PetResponseDTO> findDTOsByOwnerId(Long ownerId);
+
+    // 🏷️ Conditional GET: pet and owner versions (the DTO embeds owner fields); lists carry no timestamps
+    @Query("SELECT p.id, p.version, o.id, o.version FROM Pet p JOIN p.owner o WHERE o.id = ?1 ORDER BY p.id")
+    List<Object[]> findVersionsByOwnerId(Long ownerId);
+
+    String PET_VERSION_SELECT = "SELECT p.id, p.version, o.id, o.version, p.lastModified, o.lastModified "
+            + "FROM Pet p JOIN p.owner o ";
+
+    @Query(PET_VERSION_SELECT + "WHERE p.id = ?1")
+    List<Object[]> findVersionById(Long id);
+
+    @Query(PET_VERSION_SELECT + "WHERE p.id = ?1 AND o.id = ?2")
+    List<Object[]> findVersionByIdAndOwnerId(Long id, Long ownerId);
+
+    // 🔎 Search index rows (id, version, name, breed): all of them, or those changed since a time
+    String PET_SEARCH_SELECT = "SELECT p.id, p.version, p.name, p.breed FROM Pet p ";
+
+    @Query(PET_SEARCH_SELECT)
+    List<Object[]> findSearchRows();
+
+    @Query(PET_SEARCH_SELECT + "WHERE p.lastModified >= ?1")
+    List<Object[]> findSearchRowsModifiedSince(Instant since);
+
+    @Query("SELECT p.id FROM Pet p")
+    List<Long> findAllIds();
+
+    // 🔹 Ownership checks only need the owner id, not the pet/owner/user graph
+    @Query("SELECT p.owner.id FROM Pet p WHERE p.id = ?1")
+    Optional<Long> findOwnerIdById(Long petId);
 }
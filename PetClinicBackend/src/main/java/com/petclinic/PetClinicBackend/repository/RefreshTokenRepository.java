@@ -0,0 +1,40 @@
+package com.petclinic.PetClinicBackend.repository;
+
+import com.petclinic.PetClinicBackend.model.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // 🔒 Rotation locks the row: a concurrent rotation of the same token waits, then sees it used with its successor
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RefreshToken t WHERE t.tokenHash = ?1")
+    Optional<RefreshToken> findForRotation(String tokenHash);
+
+    // ✅ Atomic claim: returns 0 if another request already rotated this token
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.used = true, t.usedAt = ?2, t.sealedSuccessor = ?3 "
+            + "WHERE t.id = ?1 AND t.used = false")
+    int markUsed(Long id, Instant usedAt, String sealedSuccessor);
+
+    // 🔒 Reuse detected or logout → kill every token of the login session
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = ?1")
+    int revokeFamily(String familyId);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.email = ?1")
+    int revokeAllForEmail(String email);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < ?1")
+    int deleteExpired(Instant now);
+}
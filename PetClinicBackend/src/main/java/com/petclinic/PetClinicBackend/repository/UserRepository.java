@@ -1,10 +1,15 @@
 package com.petclinic.PetClinicBackend.repository;
 
 import com.petclinic.PetClinicBackend.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -15,8 +20,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByUsername(String username);
 
+    // 📥 Bulk import: accounts whose email or username is one of these (one query per batch); both columns are
+    // returned, as a row may match on either
+    @Query("SELECT u.email, u.username FROM User u WHERE u.email IN ?1 OR u.username IN ?1")
+    List<Object[]> findTakenEmailsOrUsernames(Collection<String> emails);
+
     // ✅ Fix: Add @Modifying + @Query for deleting from user_roles
+    // Declared query space: only the cached User.roles collections are evicted, not every L2 region
     @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_roles"))
     @Query(value = "DELETE FROM user_roles WHERE user_id = ?1", nativeQuery = true)
     void deleteRolesByUserId(Long userId);
 }
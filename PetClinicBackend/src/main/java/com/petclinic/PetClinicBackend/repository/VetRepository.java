@@ -2,6 +2,7 @@ package com.petclinic.PetClinicBackend.repository;
 
 import com.petclinic.PetClinicBackend.model.Vet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
-public interface VetRepository extends JpaRepository<Vet, Long> {
+public interface VetRepository extends JpaRepository<Vet, Long>, JpaSpecificationExecutor<Vet> {
 }
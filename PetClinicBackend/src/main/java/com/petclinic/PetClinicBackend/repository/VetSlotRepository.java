@@ -0,0 +1,24 @@
+package com.petclinic.PetClinicBackend.repository;
+
+import com.petclinic.PetClinicBackend.model.VetSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// 🗓️ Rows are only inserted through EntityManager.persist (never save/merge, which would overwrite another visit's slot)
+public interface VetSlotRepository extends JpaRepository<VetSlot, VetSlot.Key> {
+
+    // Slots a visit holds: rows of (vet id, date, slot)
+    @Query("SELECT s.vetId, s.slotDate, s.slot FROM VetSlot s WHERE s.visit.id = ?1")
+    List<Object[]> findSlotsByVisitId(Long visitId);
+
+    @Query("SELECT s.slot FROM VetSlot s WHERE s.vetId = ?1 AND s.slotDate = ?2")
+    List<Integer> findBookedSlots(Long vetId, LocalDate date);
+
+    @Modifying
+    @Query("DELETE FROM VetSlot s WHERE s.visit.id = ?1")
+    int deleteByVisitId(Long visitId);
+}
@@ -1,11 +1,23 @@
 package com.petclinic.PetClinicBackend.repository;
 
+import com.petclinic.PetClinicBackend.dto.VisitView;
 import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface VisitRepository extends JpaRepository<Visit, Long> {
+public interface VisitRepository extends JpaRepository<Visit, Long>, JpaSpecificationExecutor<Visit> {
 
     // 🔍 Find visits by Pet ID
     List<Visit> findByPetId(Long petId);
@@ -14,4 +26,99 @@ public interface VisitRepository extends JpaRepository<Visit, Long> {
     List<Visit> findByPet_Owner_Id(Long ownerId);
 
     List<Visit> findAllByPet_Owner_User_Email(String email); // <- match with how users are saved
+
+    // 📊 Aggregates for dashboard stats reconciliation
+    @Query("SELECT v.status, COUNT(v) FROM Visit v GROUP BY v.status")
+    List<Object[]> countByStatus();
+
+    @Query("SELECT v.vet.id, COUNT(v) FROM Visit v GROUP BY v.vet.id")
+    List<Object[]> countByVet();
+
+    @Query("SELECT YEAR(v.visitDate), MONTH(v.visitDate), COUNT(v) FROM Visit v GROUP BY YEAR(v.visitDate), MONTH(v.visitDate)")
+    List<Object[]> countByMonth();
+
+    // 🔐 Owner-scoped lookup: authorization and fetch in one query, missing row → 404
+    Optional<Visit> findByIdAndPet_Owner_Id(Long id, Long ownerId);
+
+    // 🗓️ Timed, non-cancelled visits on or after a date: what BookingEngine builds its slot bitmaps from
+    @Query("SELECT v.vet.id, v.visitDate, v.startTime, v.durationMinutes FROM Visit v "
+            + "WHERE v.visitDate >= ?1 AND v.startTime IS NOT NULL AND v.status <> ?2")
+    List<Object[]> findBookingsFrom(LocalDate from, VisitStatus excluded);
+
+    // ⚖️ Visits per vet and day on or after a date with one status: what VetLoadBalancer builds its loads from
+    @Query("SELECT v.vet.id, v.visitDate, COUNT(v) FROM Visit v WHERE v.visitDate >= ?1 AND v.status = ?2 "
+            + "GROUP BY v.vet.id, v.visitDate")
+    List<Object[]> countByVetAndDateFrom(LocalDate from, VisitStatus status);
+
+    // 🔎 Search index rows (id, version, description, date): all of them, or those changed since a time
+    String VISIT_SEARCH_SELECT = "SELECT v.id, v.version, v.description, v.visitDate FROM Visit v ";
+
+    @Query(VISIT_SEARCH_SELECT)
+    List<Object[]> findSearchRows();
+
+    @Query(VISIT_SEARCH_SELECT + "WHERE v.lastModified >= ?1")
+    List<Object[]> findSearchRowsModifiedSince(Instant since);
+
+    @Query("SELECT v.id FROM Visit v")
+    List<Long> findAllIds();
+
+    // 🏠 Whose cached visit list a visit write must evict
+    @Query("SELECT p.owner.id FROM Visit v JOIN v.pet p WHERE v.id = ?1")
+    Optional<Long> findOwnerIdById(Long visitId);
+
+    // 📖 VisitView read model: visit, pet and vet columns in one join query, no lazy loading afterwards
+    String VISIT_VIEW_SELECT = "SELECT new com.petclinic.PetClinicBackend.dto.VisitView("
+            + "v.id, v.visitDate, v.startTime, v.durationMinutes, v.description, v.status, "
+            + "p.id, p.name, p.breed, p.owner.id, "
+            + "vt.id, vt.name, vt.specialization) "
+            + "FROM Visit v JOIN v.pet p JOIN v.vet vt ";
+
+    @Query(VISIT_VIEW_SELECT + "ORDER BY v.id")
+    List<VisitView> findAllViews();
+
+    @Query(VISIT_VIEW_SELECT + "WHERE p.id = ?1 ORDER BY v.id")
+    List<VisitView> findViewsByPetId(Long petId);
+
+    @Query(VISIT_VIEW_SELECT + "WHERE p.owner.id = ?1 ORDER BY v.id")
+    List<VisitView> findViewsByOwnerId(Long ownerId);
+
+    @Query(VISIT_VIEW_SELECT + "WHERE p.owner.user.email = ?1 ORDER BY v.id")
+    List<VisitView> findViewsByOwnerEmail(String email);
+
+    @Query(VISIT_VIEW_SELECT + "WHERE v.id = ?1")
+    Optional<VisitView> findViewById(Long id);
+
+    @Query(VISIT_VIEW_SELECT + "WHERE v.id = ?1 AND p.owner.id = ?2")
+    Optional<VisitView> findViewByIdAndOwnerId(Long id, Long ownerId);
+
+    // 🏷️ Conditional GET: visit, pet and vet versions (the view embeds pet and vet fields)
+    String VISIT_VERSIONS_SELECT = "SELECT v.id, v.version, p.id, p.version, vt.id, vt.version "
+            + "FROM Visit v JOIN v.pet p JOIN v.vet vt ";
+
+    @Query(VISIT_VERSIONS_SELECT + "WHERE p.owner.id = ?1 ORDER BY v.id")
+    List<Object[]> findVersionsByOwnerId(Long ownerId);
+
+    @Query(VISIT_VERSIONS_SELECT + "WHERE p.owner.user.email = ?1 ORDER BY v.id")
+    List<Object[]> findVersionsByOwnerEmail(String email);
+
+    String VISIT_VERSION_SELECT = "SELECT v.id, v.version, p.id, p.version, vt.id, vt.version, "
+            + "v.lastModified, p.lastModified, vt.lastModified FROM Visit v JOIN v.pet p JOIN v.vet vt ";
+
+    @Query(VISIT_VERSION_SELECT + "WHERE v.id = ?1")
+    List<Object[]> findVersionById(Long id);
+
+    @Query(VISIT_VERSION_SELECT + "WHERE v.id = ?1 AND p.owner.id = ?2")
+    List<Object[]> findVersionByIdAndOwnerId(Long id, Long ownerId);
+
+    // 📤 Export: rows are pulled from the driver in chunks of EXPORT_FETCH_SIZE; null filters are ignored.
+    // Must be consumed inside a transaction and closed. Ordered to match idx_visit_date / idx_visit_vet_date_status.
+    int EXPORT_FETCH_SIZE = 1000;
+
+    @QueryHints(value = {
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    }, forCounting = false)
+    @Query(VISIT_VIEW_SELECT + "WHERE (?1 IS NULL OR v.visitDate >= ?1) AND (?2 IS NULL OR v.visitDate <= ?2) "
+            + "AND (?3 IS NULL OR vt.id = ?3) ORDER BY v.visitDate, v.id")
+    Stream<VisitView> streamViews(LocalDate from, LocalDate to, Long vetId);
 }
@@ -0,0 +1,87 @@
+package com.petclinic.PetClinicBackend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 🔐 BCrypt with a cost factor picked at startup; hashes with a lower cost are flagged for rehash
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+    private static final int WARMUP_HASHES = 5;
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+    }
+
+    // ✅ Highest cost whose single hash stays within the target latency on this host.
+    // Warmed up first: a cold JIT would make every cost look slower and pick a lower one.
+    public static AdaptiveBCryptPasswordEncoder calibrated(long targetMillis, int minStrength, int maxStrength) {
+        for (int i = 0; i < WARMUP_HASHES; i++) {
+            time(minStrength);
+        }
+        int chosen = minStrength;
+        for (int candidate = minStrength; candidate <= maxStrength; candidate++) {
+            long elapsed = time(candidate);
+            if (elapsed > targetMillis) {
+                break;
+            }
+            chosen = candidate;
+            // each step doubles the work, so stop once the next one would overshoot
+            if (elapsed * 2 > targetMillis) {
+                break;
+            }
+        }
+        logger.info("BCrypt cost calibrated to {} (target {} ms)", chosen, targetMillis);
+        return new AdaptiveBCryptPasswordEncoder(chosen);
+    }
+
+    // Best of two, so a single stall (GC, a noisy neighbour) does not lower the cost
+    private static long time(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration-password");
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    // ✅ AuthService rehashes on successful login when this returns true. Only ever upwards: an instance that
+    // calibrated lower must not weaken stored hashes, nor flip them back and forth with its peers.
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(2)) < strength;
+    }
+}
@@ -0,0 +1,101 @@
+package com.petclinic.PetClinicBackend.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// 🚦 Throttles /api/auth/** before any JWT or BCrypt work happens
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_INSPECTED_BODY = 8 * 1024;
+
+    private final AuthRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public AuthRateLimitFilter(AuthRateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long wait = rateLimiter.checkIp(request.getRemoteAddr());
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+
+        // ✅ Login/register bodies are tiny JSON; read the email so one account can't be hammered from many IPs.
+        // Every POST body is read (at most MAX_INSPECTED_BODY bytes, whatever Content-Length says or not), so
+        // padding or chunking the body can't get past the email bucket
+        if ("POST".equalsIgnoreCase(request.getMethod())) {
+            if (request.getContentLengthLong() > MAX_INSPECTED_BODY) {
+                rejectTooLarge(response);
+                return;
+            }
+            CachedBodyHttpServletRequest cached = new CachedBodyHttpServletRequest(request, MAX_INSPECTED_BODY);
+            if (cached.isTruncated()) {
+                rejectTooLarge(response);
+                return;
+            }
+            String email = extractEmail(cached.getBody());
+            if (email != null) {
+                wait = rateLimiter.checkEmail(email);
+                if (wait > 0) {
+                    reject(response, wait);
+                    return;
+                }
+            }
+            filterChain.doFilter(cached, response);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String extractEmail(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() && !email.asText().isBlank() ? email.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfter = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Too many requests, retry after " + retryAfter + " seconds");
+    }
+
+    private void rejectTooLarge(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write("Request body exceeds " + MAX_INSPECTED_BODY + " bytes");
+    }
+}
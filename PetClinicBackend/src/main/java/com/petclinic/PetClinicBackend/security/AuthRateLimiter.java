@@ -0,0 +1,135 @@
+package com.petclinic.PetClinicBackend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+// 🔐 Per-client-IP and per-email token buckets for the password endpoints
+@Component
+public class AuthRateLimiter {
+
+    private final Limiter ipLimiter;
+    private final Limiter emailLimiter;
+    private final long idleNanos;
+    private final int maxBuckets;
+
+    private final Counter rejectedByIp;
+    private final Counter rejectedByEmail;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public AuthRateLimiter(MeterRegistry meterRegistry,
+                           @Value("${security.rate-limit.ip.capacity:30}") long ipCapacity,
+                           @Value("${security.rate-limit.ip.refill-per-minute:30}") long ipRefillPerMinute,
+                           @Value("${security.rate-limit.email.capacity:5}") long emailCapacity,
+                           @Value("${security.rate-limit.email.refill-per-minute:5}") long emailRefillPerMinute,
+                           @Value("${security.rate-limit.idle-millis:600000}") long idleMillis,
+                           @Value("${security.rate-limit.max-buckets:100000}") int maxBuckets) {
+        this(meterRegistry, ipCapacity, ipRefillPerMinute, emailCapacity, emailRefillPerMinute, idleMillis, maxBuckets,
+                System::nanoTime);
+    }
+
+    // nanoClock: System.nanoTime outside tests
+    AuthRateLimiter(MeterRegistry meterRegistry, long ipCapacity, long ipRefillPerMinute, long emailCapacity,
+                    long emailRefillPerMinute, long idleMillis, int maxBuckets, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.ipLimiter = new Limiter(ipCapacity, ipRefillPerMinute);
+        this.emailLimiter = new Limiter(emailCapacity, emailRefillPerMinute);
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.maxBuckets = maxBuckets;
+        this.rejectedByIp = Counter.builder("auth.ratelimit.rejected")
+                .tag("key", "ip")
+                .description("Auth requests rejected by the rate limiter")
+                .register(meterRegistry);
+        this.rejectedByEmail = Counter.builder("auth.ratelimit.rejected")
+                .tag("key", "email")
+                .description("Auth requests rejected by the rate limiter")
+                .register(meterRegistry);
+        meterRegistry.gauge("auth.ratelimit.buckets", this, limiter -> limiter.bucketCount());
+    }
+
+    // ✅ Returns 0 when allowed, otherwise the nanos the caller should wait
+    public long checkIp(String ip) {
+        long wait = ipLimiter.tryConsume(ip, nanoClock.getAsLong());
+        if (wait > 0) {
+            rejectedByIp.increment();
+        }
+        return wait;
+    }
+
+    public long checkEmail(String email) {
+        long wait = emailLimiter.tryConsume(email.trim().toLowerCase(), nanoClock.getAsLong());
+        if (wait > 0) {
+            rejectedByEmail.increment();
+        }
+        return wait;
+    }
+
+    public int bucketCount() {
+        return ipLimiter.buckets.size() + emailLimiter.buckets.size();
+    }
+
+    // 🧹 Drop idle, fully refilled buckets so new keys get their own again; the cap itself is enforced on admission
+    @Scheduled(fixedDelayString = "${security.rate-limit.sweep-millis:60000}")
+    public void evictIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        ipLimiter.sweep(now, idleNanos);
+        emailLimiter.sweep(now, idleNanos);
+    }
+
+    // Each limiter holds at most max-buckets keys. Past that, new keys share one overflow bucket until the sweep
+    // frees room: O(1) on the request thread, and existing keys' buckets are never evicted to make space
+    private class Limiter {
+        private final long capacity;
+        private final long refillPerMinute;
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final TokenBucket overflow;
+
+        Limiter(long capacity, long refillPerMinute) {
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+            this.overflow = new TokenBucket(capacity, refillPerMinute, nanoClock.getAsLong());
+        }
+
+        long tryConsume(String key, long now) {
+            TokenBucket bucket = buckets.get(key);
+            return (bucket != null ? bucket : admit(key, now)).tryConsume(now);
+        }
+
+        // A slot is reserved before the bucket is created, so concurrent new keys cannot overshoot the cap
+        private TokenBucket admit(String key, long now) {
+            if (size.incrementAndGet() > maxBuckets) {
+                size.decrementAndGet();
+                TokenBucket existing = buckets.get(key);
+                return existing != null ? existing : overflow;
+            }
+            boolean[] created = new boolean[1];
+            TokenBucket bucket = buckets.computeIfAbsent(key, k -> {
+                created[0] = true;
+                return new TokenBucket(capacity, refillPerMinute, now);
+            });
+            if (!created[0]) {
+                size.decrementAndGet(); // another request created it first
+            }
+            return bucket;
+        }
+
+        void sweep(long now, long idle) {
+            buckets.forEach((key, bucket) -> {
+                if (bucket.isIdle(now, idle) && buckets.remove(key, bucket)) {
+                    size.decrementAndGet();
+                }
+            });
+        }
+    }
+}
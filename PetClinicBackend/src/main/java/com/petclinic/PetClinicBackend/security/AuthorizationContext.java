@@ -0,0 +1,42 @@
+package com.petclinic.PetClinicBackend.security;
+
+import java.util.Set;
+
+// 🔐 Who is calling, resolved once per request from the verified JWT (attached as Authentication details)
+public final class AuthorizationContext {
+
+    private final String email;
+    private final Long ownerId;
+    private final Set<String> roles;
+
+    public AuthorizationContext(String email, Long ownerId, Set<String> roles) {
+        this.email = email;
+        this.ownerId = ownerId;
+        this.roles = Set.copyOf(roles);
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    // 🔹 Null when the caller has no owner profile (e.g. admins)
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains("ROLE_" + role);
+    }
+
+    public boolean isAdmin() {
+        return hasRole("ADMIN") || hasRole("SUPERADMIN");
+    }
+
+    public boolean isOwner(Long ownerId) {
+        return this.ownerId != null && this.ownerId.equals(ownerId);
+    }
+}
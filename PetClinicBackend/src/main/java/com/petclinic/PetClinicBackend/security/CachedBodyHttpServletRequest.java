@@ -0,0 +1,75 @@
+package com.petclinic.PetClinicBackend.security;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// 🔁 Buffers a (small) request body so a filter can inspect it and the controller can still read it.
+// At most maxBytes are read: a longer body is only flagged as truncated, and must not be passed on.
+public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+    private final boolean truncated;
+
+    public CachedBodyHttpServletRequest(HttpServletRequest request, int maxBytes) throws IOException {
+        super(request);
+        byte[] read = request.getInputStream().readNBytes(maxBytes + 1);
+        this.truncated = read.length > maxBytes;
+        this.body = truncated ? Arrays.copyOf(read, maxBytes) : read;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream input = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            // The body is already in memory: all of it is available, and read, at once
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                try {
+                    readListener.onDataAvailable();
+                    readListener.onAllDataRead();
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+
+            @Override
+            public int read() {
+                return input.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return input.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+    }
+}
@@ -1,20 +1,24 @@
 package com.petclinic.PetClinicBackend.security;
 
-import com.petclinic.PetClinicBackend.service.CustomUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -23,7 +27,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtUtil jwtUtil;
 
     @Autowired
-    private CustomUserDetailsService userDetailsService;
+    private PrincipalCache principalCache;
+
+    // ✅ true → trust the signed "roles" claim; false → confirm the user against the (cached) DB record
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -32,37 +40,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String email = null;
+        VerifiedToken token = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
             try {
-                email = jwtUtil.extractUsername(token);
-                System.out.println("🔐 Extracted username (email) from token: " + email);
+                token = jwtUtil.verify(authHeader.substring(7));
             } catch (Exception e) {
                 System.out.println("⚠️ Invalid JWT: " + e.getMessage());
             }
         }
 
+        String email = token != null ? token.subject() : null;
+
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+            UserDetails userDetails = stateless ? principalFromClaims(token) : principalCache.load(email);
 
             if (jwtUtil.validateToken(token, userDetails.getUsername())) {
-                System.out.println("✅ Token validated successfully for user: " + email);
-
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                authToken.setDetails(authorizationContext(token, userDetails));
 
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-
-                System.out.println("🔐 SecurityContext set with authentication for: " + email);
-                System.out.println("🔑 Roles:");
-                for (GrantedAuthority authority : userDetails.getAuthorities()) {
-                    System.out.println("   - " + authority.getAuthority());
-                }
             } else {
                 System.out.println("❌ Token validation failed for user: " + email);
             }
@@ -70,4 +69,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private AuthorizationContext authorizationContext(VerifiedToken token, UserDetails userDetails) {
+        Set<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+        return new AuthorizationContext(token.subject(), token.ownerId(), roles);
+    }
+
+    // 🔄 Build the principal straight from the verified token, no DB round trip
+    private UserDetails principalFromClaims(VerifiedToken token) {
+        List<GrantedAuthority> authorities = token.roles().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        return new User(token.subject(), "", authorities);
+    }
 }
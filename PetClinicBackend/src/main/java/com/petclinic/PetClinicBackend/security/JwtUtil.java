@@ -1,52 +1,106 @@
 package com.petclinic.PetClinicBackend.security;
 
+import com.petclinic.PetClinicBackend.util.BoundedCache;
 import io.jsonwebtoken.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final String secret;
+    private final long expiration; // in milliseconds
+    private final LongSupplier clock;
 
-    @Value("${jwt.expiration}")
-    private long expiration; // in milliseconds
+    // ✅ Verified tokens keyed by SHA-256 digest; each entry expires with its token
+    private final BoundedCache<String, VerifiedToken> verifiedTokens;
+
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expiration,
+                   @Value("${jwt.token-cache.max-size:10000}") int tokenCacheSize) {
+        this(secret, expiration, tokenCacheSize, System::currentTimeMillis);
+    }
+
+    // Epoch-millis clock shared by token issue, the parser's expiry check and the cache, replaceable in tests
+    JwtUtil(String secret, long expiration, int tokenCacheSize, LongSupplier clock) {
+        this.secret = secret;
+        this.expiration = expiration;
+        this.clock = clock;
+        this.verifiedTokens = new BoundedCache<>(tokenCacheSize, 0, clock);
+    }
 
     // ✅ Generate token with roles
     public String generateToken(UserDetails userDetails) {
+        return generateToken(userDetails, null);
+    }
+
+    // ✅ Generate token with roles and the caller's owner id, so authorization needs no DB lookup
+    public String generateToken(UserDetails userDetails, Long ownerId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("roles", userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.toList()));
+        if (ownerId != null) {
+            claims.put("ownerId", ownerId);
+        }
 
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(userDetails.getUsername()) // Email
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .setIssuedAt(new Date(clock.getAsLong()))
+                .setExpiration(new Date(clock.getAsLong() + expiration))
                 .signWith(SignatureAlgorithm.HS512, secret)
                 .compact();
     }
 
+    // ✅ Verify signature and decode claims once; repeat calls with the same token skip crypto
+    public VerifiedToken verify(String token) {
+        String key = digest(token);
+        VerifiedToken cached = verifiedTokens.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token);
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+        Number ownerId = claims.get("ownerId", Number.class);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), roles,
+                ownerId != null ? ownerId.longValue() : null, claims.getExpiration());
+
+        if (verified.expiration() != null) {
+            verifiedTokens.put(key, verified, verified.expiration().getTime());
+        }
+        return verified;
+    }
+
     // ✅ Validate token
     public boolean validateToken(String token, String email) {
-        final String username = extractUsername(token);
-        return username.equals(email) && !isTokenExpired(token);
+        return validateToken(verify(token), email);
+    }
+
+    public boolean validateToken(VerifiedToken token, String email) {
+        return token.subject() != null && token.subject().equals(email) && !token.isExpired();
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).expiration();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -54,21 +108,25 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     public Claims extractAllClaims(String token) {
         return Jwts.parser()
+                .setClock(() -> new Date(clock.getAsLong()))
                 .setSigningKey(secret)
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     // ✅ Extract roles from token
-    @SuppressWarnings("unchecked")
     public List<String> extractRoles(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.get("roles", List.class);
+        return verify(token).roles();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
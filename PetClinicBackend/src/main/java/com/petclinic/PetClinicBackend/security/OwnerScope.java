@@ -0,0 +1,41 @@
+package com.petclinic.PetClinicBackend.security;
+
+import com.petclinic.PetClinicBackend.service.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+// 🔐 Row-level scoping for non-admins: restrictedOwnerId for by-id reads, the Visit ownerScope filter for lists
+@Component
+public class OwnerScope {
+
+    public static final String FILTER_NAME = "ownerScope";
+    public static final String OWNER_PARAM = "ownerId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final UserService userService;
+
+    public OwnerScope(UserService userService) {
+        this.userService = userService;
+    }
+
+    // ✅ Empty for admins (unrestricted), otherwise the owner id every read must match
+    public Optional<Long> restrictedOwnerId() {
+        if (userService.isCurrentUserAdmin()) {
+            return Optional.empty();
+        }
+        return Optional.of(userService.getCurrentOwnerId());
+    }
+
+    // ✅ Enable the Hibernate filter on the current session; call inside a transaction before querying
+    public void apply() {
+        restrictedOwnerId().ifPresent(ownerId -> entityManager.unwrap(Session.class)
+                .enableFilter(FILTER_NAME)
+                .setParameter(OWNER_PARAM, ownerId));
+    }
+}
@@ -0,0 +1,58 @@
+package com.petclinic.PetClinicBackend.security;
+
+import com.petclinic.PetClinicBackend.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// 🔐 Dedicated, bounded pool for BCrypt work so login bursts cannot starve Tomcat request threads
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public PasswordHashingExecutor(@Value("${security.bcrypt.threads:0}") int threads,
+                                   @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // ✅ Fails fast with ServiceBusyException (→ 503) when the pool and its queue are full
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new ServiceBusyException("Authentication service is busy, please retry shortly", 1);
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
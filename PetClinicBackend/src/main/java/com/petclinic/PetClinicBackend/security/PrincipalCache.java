@@ -0,0 +1,54 @@
+package com.petclinic.PetClinicBackend.security;
+
+import com.petclinic.PetClinicBackend.service.CustomUserDetailsService;
+import com.petclinic.PetClinicBackend.util.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// 🔐 Short-lived cache of loaded principals so the JWT filter does not hit the DB on every request
+@Component
+public class PrincipalCache {
+
+    private final CustomUserDetailsService userDetailsService;
+    private final BoundedCache<String, UserDetails> cache;
+
+    public PrincipalCache(CustomUserDetailsService userDetailsService,
+                          @Value("${jwt.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${jwt.principal-cache.ttl:60000}") long ttlMillis) {
+        this.userDetailsService = userDetailsService;
+        this.cache = new BoundedCache<>(maxSize, ttlMillis);
+    }
+
+    public UserDetails load(String email) {
+        return cache.computeIfAbsent(email, userDetailsService::loadUserByUsername);
+    }
+
+    // ✅ Call whenever a user is deleted, disabled or has roles changed
+    public void evict(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+
+    // Inside a transaction, evict only once it commits: an earlier eviction lets a concurrent request
+    // reload and re-cache the principal the transaction is about to delete
+    public void evictAfterCommit(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(email);
+                }
+            });
+        } else {
+            evict(email);
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,46 @@
+package com.petclinic.PetClinicBackend.security;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// 🪣 Lock-free token bucket: state is swapped with CAS, never guarded by a monitor
+public class TokenBucket {
+
+    private final long capacity;
+    private final double refillPerNano;
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, long refillPerMinute, long nowNanos) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / 60_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    // ✅ Returns 0 when a token was taken, otherwise the nanos until one becomes available
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double tokens = refill(current, nowNanos);
+            if (tokens >= 1d) {
+                if (state.compareAndSet(current, new State(tokens - 1d, nowNanos))) {
+                    return 0L;
+                }
+                continue;
+            }
+            return (long) Math.ceil((1d - tokens) / refillPerNano);
+        }
+    }
+
+    // 🔹 Idle and fully refilled → safe to drop, a fresh bucket behaves identically
+    public boolean isIdle(long nowNanos, long idleNanos) {
+        State current = state.get();
+        return nowNanos - current.updatedAt >= idleNanos && refill(current, nowNanos) >= capacity;
+    }
+
+    private double refill(State current, long nowNanos) {
+        long elapsed = Math.max(0L, nowNanos - current.updatedAt);
+        return Math.min(capacity, current.tokens + elapsed * refillPerNano);
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+}
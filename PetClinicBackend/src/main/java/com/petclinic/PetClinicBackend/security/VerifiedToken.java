@@ -0,0 +1,16 @@
+package com.petclinic.PetClinicBackend.security;
+
+import java.util.Date;
+import java.util.List;
+
+// 🔐 Immutable result of a single signature check + claim decode
+public record VerifiedToken(String subject, List<String> roles, Long ownerId, Date expiration) {
+
+    public VerifiedToken {
+        roles = roles == null ? List.of() : List.copyOf(roles);
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -0,0 +1,133 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.dto.LoginResponse;
+import com.petclinic.PetClinicBackend.dto.RegisterRequest;
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Role;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.RoleRepository;
+import com.petclinic.PetClinicBackend.repository.UserRepository;
+import com.petclinic.PetClinicBackend.security.JwtUtil;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.Optional;
+
+/**
+ * 🔐 Register and login, split by thread: {@link #checkPassword} is the only BCrypt work and is meant for the
+ * PasswordHashingExecutor; everything that touches the database runs in its own transaction, off that pool, so
+ * a slow query never holds a hashing thread and a transaction never spans a hash.
+ */
+@Service
+public class AuthService {
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final OwnerRepository ownerRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordEncoder passwordEncoder;
+    private final JwtUtil jwtUtil;
+    private final AccountStatusUserDetailsChecker accountChecker = new AccountStatusUserDetailsChecker();
+    private volatile String unknownUserHash;
+
+    public AuthService(UserRepository userRepository,
+                       RoleRepository roleRepository,
+                       OwnerRepository ownerRepository,
+                       CustomUserDetailsService userDetailsService,
+                       RefreshTokenService refreshTokenService,
+                       PasswordEncoder passwordEncoder,
+                       JwtUtil jwtUtil) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.ownerRepository = ownerRepository;
+        this.userDetailsService = userDetailsService;
+        this.refreshTokenService = refreshTokenService;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtUtil = jwtUtil;
+    }
+
+    // ✅ The user and its owner profile commit together
+    @Transactional
+    public void register(RegisterRequest request, String encodedPassword) {
+        User user = new User();
+        user.setUsername(request.getUsername());
+        user.setName(request.getName());
+        user.setEmail(request.getEmail());
+        user.setPassword(encodedPassword);
+
+        Role userRole = roleRepository.findByName("ROLE_USER").orElseThrow();
+        user.setRoles(Collections.singleton(userRole));
+
+        User savedUser = userRepository.save(user);
+
+        Owner owner = new Owner();
+        owner.setName(request.getName());
+        owner.setEmail(request.getEmail());
+        owner.setPhone(request.getPhone());
+        owner.setAddress(request.getAddress());
+        owner.setUser(savedUser);
+
+        ownerRepository.save(owner);
+    }
+
+    // The principal to check a login against; null when unknown, which checkPassword turns into bad credentials
+    @Transactional(readOnly = true)
+    public UserDetails findLoginUser(String email) {
+        try {
+            return email == null ? null : userDetailsService.loadUserByUsername(email);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    // 🔐 BCrypt only: the password check, then the rehash when the encoder's strength has changed.
+    // An unknown user is checked against a dummy hash, so the response time does not reveal which emails exist.
+    public Optional<String> checkPassword(UserDetails user, String rawPassword) {
+        if (user == null) {
+            if (rawPassword != null) {
+                passwordEncoder.matches(rawPassword, unknownUserHash());
+            }
+            throw new BadCredentialsException("Bad credentials");
+        }
+        accountChecker.check(user);
+        if (rawPassword == null || !passwordEncoder.matches(rawPassword, user.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+        return passwordEncoder.upgradeEncoding(user.getPassword())
+                ? Optional.of(passwordEncoder.encode(rawPassword))
+                : Optional.empty();
+    }
+
+    // ✅ After a successful check: store the rehash if any, then issue the access and refresh tokens
+    @Transactional
+    public LoginResponse completeLogin(UserDetails user, String rehashedPassword) {
+        UserDetails principal = rehashedPassword != null
+                ? userDetailsService.updatePassword(user, rehashedPassword)
+                : user;
+        return new LoginResponse(accessToken(principal), refreshTokenService.issue(principal.getUsername()));
+    }
+
+    // 🔐 Embed the owner id so per-request authorization reads it from the token
+    public String accessToken(UserDetails userDetails) {
+        Long ownerId = ownerRepository.findIdByUserEmail(userDetails.getUsername()).orElse(null);
+        return jwtUtil.generateToken(userDetails, ownerId);
+    }
+
+    // Benign race: two threads may both compute it, either hash serves
+    private String unknownUserHash() {
+        String hash = unknownUserHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("unknown-user");
+            unknownUserHash = hash;
+        }
+        return hash;
+    }
+}
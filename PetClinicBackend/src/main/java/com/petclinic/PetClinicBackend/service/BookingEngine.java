@@ -0,0 +1,402 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.exception.SlotUnavailableException;
+import com.petclinic.PetClinicBackend.model.VetSlot;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.repository.VetSlotRepository;
+import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * 🗓️ Vet appointment slots. A day is cut into {@code booking.slot-minutes} slots between {@code booking.day-start}
+ * and {@code booking.day-end}; each vet's day is one 64-bit bitmap of taken slots. A booking reserves its slots
+ * with a compare-and-set on that bitmap, so concurrent bookings never block each other and a conflicting one is
+ * rejected before it touches the database. The winner then inserts VetSlot rows, whose primary key settles races
+ * with other application instances and stays the source of truth.
+ * <p>
+ * Slots reserved by a running transaction are pending: they count as taken, are kept on commit and freed on
+ * rollback. The bitmaps are built from the visits on first use and rebuilt every {@code booking.resync-interval},
+ * which picks up bookings made on other instances and drops past days.
+ */
+@Component
+public class BookingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingEngine.class);
+    private static final DayState FREE = new DayState(0L, 0L);
+
+    private final VisitRepository visitRepository;
+    private final VetSlotRepository vetSlotRepository;
+    private final TransactionTemplate committedReads;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LocalTime dayStart;
+    private final LocalTime dayEnd;
+    private final int slotMinutes;
+    private final int slotsPerDay;
+    private final int defaultDurationMinutes;
+
+    private final Map<VetDay, AtomicReference<DayState>> days = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public BookingEngine(VisitRepository visitRepository,
+                         VetSlotRepository vetSlotRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${booking.day-start:08:00}") String dayStart,
+                         @Value("${booking.day-end:20:00}") String dayEnd,
+                         @Value("${booking.slot-minutes:15}") int slotMinutes,
+                         @Value("${booking.default-duration-minutes:30}") int defaultDurationMinutes) {
+        this.visitRepository = visitRepository;
+        this.vetSlotRepository = vetSlotRepository;
+        // Own transaction: a load triggered mid-booking must not see (and flush) the booking's uncommitted rows
+        this.committedReads = new TransactionTemplate(transactionManager);
+        this.committedReads.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.committedReads.setReadOnly(true);
+        this.dayStart = LocalTime.parse(dayStart);
+        this.dayEnd = LocalTime.parse(dayEnd);
+        this.slotMinutes = slotMinutes;
+        long minutes = Duration.between(this.dayStart, this.dayEnd).toMinutes();
+        if (slotMinutes <= 0 || minutes <= 0 || minutes % slotMinutes != 0 || minutes / slotMinutes > Long.SIZE) {
+            throw new IllegalStateException("booking.day-start/day-end must span 1 to 64 whole slots of "
+                    + slotMinutes + " minutes");
+        }
+        this.slotsPerDay = (int) (minutes / slotMinutes);
+        this.defaultDurationMinutes = defaultDurationMinutes;
+    }
+
+    public LocalTime getDayStart() {
+        return dayStart;
+    }
+
+    public LocalTime getDayEnd() {
+        return dayEnd;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    public int getDefaultDurationMinutes() {
+        return defaultDurationMinutes;
+    }
+
+    // Bitmap of the slots [start, start + duration); off-grid requests are a 400
+    public long slotMask(LocalTime start, int durationMinutes) {
+        if (durationMinutes <= 0 || durationMinutes % slotMinutes != 0) {
+            throw new IllegalArgumentException("Duration must be a positive multiple of " + slotMinutes + " minutes");
+        }
+        long offset = Duration.between(dayStart, start).toMinutes();
+        if (start.isBefore(dayStart) || start.getSecond() != 0 || start.getNano() != 0 || offset % slotMinutes != 0) {
+            throw new IllegalArgumentException("Start time must be on the " + slotMinutes + "-minute grid from "
+                    + dayStart);
+        }
+        int first = (int) (offset / slotMinutes);
+        int count = durationMinutes / slotMinutes;
+        if (first + count > slotsPerDay) {
+            throw new IllegalArgumentException("Visit must end by " + dayEnd);
+        }
+        return maskOf(first, count);
+    }
+
+    public LocalTime slotStart(int slot) {
+        return dayStart.plusMinutes((long) slot * slotMinutes);
+    }
+
+    // Taken slots (committed or pending) of a vet's day
+    public long bookedMask(Long vetId, LocalDate date) {
+        ensureLoaded();
+        AtomicReference<DayState> state = days.get(new VetDay(vetId, date));
+        return state != null ? state.get().taken() : 0L;
+    }
+
+    // 🔎 Earliest free starts for a visit of this duration, ordered by date, time, then the order of vetIds.
+    // Past days and today's past slots are skipped. Pure bitmap work: one map lookup per vet-day, no query.
+    public List<FreeSlot> findFreeSlots(List<Long> vetIds, LocalDate from, LocalDate to, int durationMinutes,
+                                        int limit) {
+        ensureLoaded();
+        int count = Long.bitCount(slotMask(dayStart, durationMinutes));
+        LocalDate today = LocalDate.now();
+        List<FreeSlot> found = new ArrayList<>();
+        long[] starts = new long[vetIds.size()];
+        for (LocalDate date = from.isBefore(today) ? today : from;
+             !date.isAfter(to) && found.size() < limit; date = date.plusDays(1)) {
+            long allowed = date.equals(today) ? startsFrom(LocalTime.now()) : -1L;
+            long any = 0L;
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = fittingStarts(~bookedMask(vetIds.get(i), date) & maskOf(0, slotsPerDay), count) & allowed;
+                any |= starts[i];
+            }
+            while (any != 0L && found.size() < limit) {
+                int slot = Long.numberOfTrailingZeros(any);
+                for (int i = 0; i < starts.length && found.size() < limit; i++) {
+                    if ((starts[i] & (1L << slot)) != 0L) {
+                        found.add(new FreeSlot(vetIds.get(i), date, slotStart(slot)));
+                    }
+                }
+                any &= ~(1L << slot);
+            }
+        }
+        return found;
+    }
+
+    // 🗓️ Align the visit's VetSlot rows and the bitmaps with its vet, date, start time, duration and status.
+    // Runs inside the saving transaction, after the visit has its id; taken slots → SlotUnavailableException (409).
+    public void book(Visit visit, boolean isNew) {
+        requireTransaction();
+        ensureLoaded();
+        Booking before = isNew ? null : Booking.of(vetSlotRepository.findSlotsByVisitId(visit.getId()));
+        Booking after = bookingOf(visit);
+        if (before == null && after == null || before != null && before.equals(after)) {
+            return;
+        }
+
+        // Slots kept across an in-day move are already ours: only the difference is reserved or released
+        boolean sameDay = before != null && after != null && before.day().equals(after.day());
+        long added = after == null ? 0L : after.mask() & ~(sameDay ? before.mask() : 0L);
+        long removed = before == null ? 0L : before.mask() & ~(sameDay ? after.mask() : 0L);
+        if (added != 0L && !reserve(after.day(), added)) {
+            throw new SlotUnavailableException(after.day().vetId(), visit.getVisitDate(), visit.getStartTime());
+        }
+
+        boolean[] conflict = new boolean[1];
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                if (added != 0L) {
+                    update(after.day(), committed ? confirm(added) : cancel(added));
+                }
+                if (removed != 0L && committed) {
+                    update(before.day(), release(removed));
+                }
+                if (conflict[0]) {
+                    // Booked through another instance: learn the day's real slots now, not at the next resync
+                    resync(after.day());
+                }
+            }
+        });
+
+        if (before != null) {
+            vetSlotRepository.deleteByVisitId(visit.getId());
+        }
+        if (after != null) {
+            for (int slot = 0; slot < slotsPerDay; slot++) {
+                if ((after.mask() & (1L << slot)) != 0L) {
+                    entityManager.persist(new VetSlot(after.day().vetId(), after.day().date(), slot, visit));
+                }
+            }
+        }
+        try {
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            if (after == null || !isDuplicateKey(e)) {
+                throw e;
+            }
+            conflict[0] = true;
+            throw new SlotUnavailableException(after.day().vetId(), visit.getVisitDate(), visit.getStartTime());
+        }
+    }
+
+    // Free a visit's slots; runs inside the deleting transaction, before the visit is deleted
+    public void unbook(Long visitId) {
+        requireTransaction();
+        ensureLoaded();
+        Booking before = Booking.of(vetSlotRepository.findSlotsByVisitId(visitId));
+        if (before == null) {
+            return;
+        }
+        vetSlotRepository.deleteByVisitId(visitId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    update(before.day(), release(before.mask()));
+                }
+            }
+        });
+    }
+
+    // 🔄 Rebuild the bitmaps from the DB; pending reservations survive, past days are dropped
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${booking.resync-interval:300000}",
+            fixedDelayString = "${booking.resync-interval:300000}")
+    public synchronized void resync() {
+        try {
+            LocalDate today = LocalDate.now();
+            Map<VetDay, Long> committed = new HashMap<>();
+            List<Object[]> rows = committedReads.execute(
+                    status -> visitRepository.findBookingsFrom(today, VisitStatus.CANCELLED));
+            for (Object[] row : rows) {
+                try {
+                    long mask = slotMask((LocalTime) row[2], row[3] != null ? (Integer) row[3] : defaultDurationMinutes);
+                    committed.merge(new VetDay((Long) row[0], (LocalDate) row[1]), mask, (a, b) -> a | b);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring off-grid booking of vet {} on {}: {}", row[0], row[1], e.getMessage());
+                }
+            }
+
+            days.keySet().removeIf(day -> day.date().isBefore(today));
+            days.forEach((day, state) -> state.updateAndGet(resyncTo(committed.getOrDefault(day, 0L))));
+            committed.forEach((day, mask) -> days.computeIfAbsent(day, key -> new AtomicReference<>(FREE))
+                    .updateAndGet(resyncTo(mask)));
+            loaded = true;
+            logger.debug("Booking engine resynced: {} vet-days", days.size());
+        } catch (Exception e) {
+            logger.warn("Booking engine resync failed: {}", e.getMessage());
+        }
+    }
+
+    private void resync(VetDay day) {
+        long mask = 0L;
+        List<Integer> slots = committedReads.execute(
+                status -> vetSlotRepository.findBookedSlots(day.vetId(), day.date()));
+        for (Integer slot : slots) {
+            mask |= 1L << slot;
+        }
+        update(day, resyncTo(mask));
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            resync();
+        }
+    }
+
+    // Compare-and-set loop: fails only when one of the slots is taken, never waits for another booking
+    private boolean reserve(VetDay day, long mask) {
+        AtomicReference<DayState> state = days.computeIfAbsent(day, key -> new AtomicReference<>(FREE));
+        while (true) {
+            DayState current = state.get();
+            if ((current.taken() & mask) != 0L) {
+                return false;
+            }
+            if (state.compareAndSet(current, new DayState(current.taken() | mask, current.pending() | mask))) {
+                return true;
+            }
+        }
+    }
+
+    private void update(VetDay day, UnaryOperator<DayState> change) {
+        days.computeIfAbsent(day, key -> new AtomicReference<>(FREE)).updateAndGet(change);
+    }
+
+    private static UnaryOperator<DayState> confirm(long mask) {
+        return state -> new DayState(state.taken(), state.pending() & ~mask);
+    }
+
+    private static UnaryOperator<DayState> cancel(long mask) {
+        return state -> new DayState(state.taken() & ~mask, state.pending() & ~mask);
+    }
+
+    private static UnaryOperator<DayState> release(long mask) {
+        return state -> new DayState(state.taken() & ~mask, state.pending());
+    }
+
+    private static UnaryOperator<DayState> resyncTo(long committed) {
+        return state -> new DayState(committed | state.pending(), state.pending());
+    }
+
+    private Booking bookingOf(Visit visit) {
+        if (visit.getStartTime() == null || visit.getStatus() == VisitStatus.CANCELLED) {
+            return null;
+        }
+        int duration = visit.getDurationMinutes() != null ? visit.getDurationMinutes() : defaultDurationMinutes;
+        return new Booking(new VetDay(visit.getVet().getId(), visit.getVisitDate()),
+                slotMask(visit.getStartTime(), duration));
+    }
+
+    private static boolean isDuplicateKey(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE;
+            }
+        }
+        return false;
+    }
+
+    private static void requireTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Bookings must run inside a transaction");
+        }
+    }
+
+    // Bit i set when slots i .. i + count - 1 are all free (runs past the end of the day have no free bits)
+    private static long fittingStarts(long free, int count) {
+        long starts = free;
+        for (int shift = 1; shift < count && starts != 0L; shift++) {
+            starts &= free >>> shift;
+        }
+        return starts;
+    }
+
+    // Slots starting at or after the given time of day
+    private long startsFrom(LocalTime time) {
+        if (!time.isAfter(dayStart)) {
+            return -1L;
+        }
+        long seconds = Duration.between(dayStart, time).toSeconds();
+        int first = (int) Math.min(slotsPerDay, (seconds + slotMinutes * 60L - 1) / (slotMinutes * 60L));
+        return first >= Long.SIZE ? 0L : -1L << first;
+    }
+
+    static long maskOf(int first, int count) {
+        return (count == Long.SIZE ? -1L : (1L << count) - 1) << first;
+    }
+
+    public record VetDay(Long vetId, LocalDate date) {
+    }
+
+    public record FreeSlot(Long vetId, LocalDate date, LocalTime startTime) {
+    }
+
+    // taken includes pending: slots reserved by transactions that have not completed yet
+    private record DayState(long taken, long pending) {
+    }
+
+    private record Booking(VetDay day, long mask) {
+
+        // From VetSlotRepository.findSlotsByVisitId rows; a visit's slots are all on one vet-day
+        static Booking of(List<Object[]> rows) {
+            if (rows.isEmpty()) {
+                return null;
+            }
+            long mask = 0L;
+            for (Object[] row : rows) {
+                mask |= 1L << (Integer) row[2];
+            }
+            return new Booking(new VetDay((Long) rows.get(0)[0], (LocalDate) rows.get(0)[1]), mask);
+        }
+    }
+}
@@ -0,0 +1,408 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.dto.ImportReport;
+import com.petclinic.PetClinicBackend.exception.ServiceBusyException;
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.Role;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.repository.RoleRepository;
+import com.petclinic.PetClinicBackend.repository.UserRepository;
+import com.petclinic.PetClinicBackend.repository.VetRepository;
+import com.petclinic.PetClinicBackend.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk clinic import from one CSV stream. The first column is the record type:
+ * <pre>
+ * owner,&lt;ref&gt;,&lt;name&gt;,&lt;email&gt;,&lt;phone&gt;,&lt;address&gt;
+ * pet,&lt;ref&gt;,&lt;owner ref&gt;,&lt;name&gt;,&lt;breed&gt;,&lt;birth date yyyy-MM-dd&gt;
+ * visit,&lt;pet ref&gt;,&lt;vet id or email&gt;,&lt;visit date yyyy-MM-dd&gt;,&lt;status, default COMPLETED&gt;,&lt;description&gt;
+ * </pre>
+ * Refs are file-local keys; a row may only reference refs defined on earlier lines. Rows are read one at a time
+ * and persisted in transactions of {@code import.batch-size}, so heap use depends on the batch size and the number
+ * of refs (ids only), not on the file size. Imported owners get a ROLE_USER account whose password cannot match.
+ */
+@Service
+public class ClinicImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClinicImportService.class);
+    private static final String LOCKED_PASSWORD_PREFIX = "!import-";
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final VetRepository vetRepository;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Progress current;
+
+    public ClinicImportService(PlatformTransactionManager transactionManager,
+                               UserRepository userRepository,
+                               RoleRepository roleRepository,
+                               VetRepository vetRepository,
+                               Validator validator,
+                               @Value("${import.batch-size:500}") int batchSize,
+                               @Value("${import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.vetRepository = vetRepository;
+        this.validator = validator;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // 📥 One import at a time; a second caller gets 503 and can poll getStatus()
+    public ImportReport importCsv(InputStream input) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ServiceBusyException("A clinic import is already running", 30);
+        }
+        Progress progress = new Progress(maxReportedErrors);
+        current = progress;
+        try {
+            Role userRole = roleRepository.findByName("ROLE_USER")
+                    .orElseThrow(() -> new IllegalStateException("ROLE_USER is missing"));
+            ImportState state = new ImportState(userRole.getId(), loadVetKeys());
+            readAndPersist(input, state, progress);
+        } finally {
+            progress.finish();
+            running.set(false);
+        }
+        ImportReport report = progress.snapshot();
+        logger.info("Clinic import finished: {} rows, {} owners, {} pets, {} visits, {} failed in {} ms",
+                report.getRowsRead(), report.getOwnersImported(), report.getPetsImported(),
+                report.getVisitsImported(), report.getFailedRows(), report.getElapsedMillis());
+        return report;
+    }
+
+    // Progress of the running import, or the result of the last one (null if none ran yet)
+    public ImportReport getStatus() {
+        Progress progress = current;
+        return progress != null ? progress.snapshot() : null;
+    }
+
+    private void readAndPersist(InputStream input, ImportState state, Progress progress) {
+        CsvReader csv = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<Row> batch = new ArrayList<>(batchSize);
+        try {
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                String type = record.get(0).trim().toLowerCase(Locale.ROOT);
+                if (type.equals("type") || type.startsWith("#")) {
+                    continue; // header or comment
+                }
+                progress.rowsRead.incrementAndGet();
+                batch.add(new Row(csv.getRecordLine(), type, record));
+                if (batch.size() == batchSize) {
+                    persistBatch(batch, state, progress);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            progress.fail(csv.getRecordLine(), "Import stopped, unreadable input: " + e.getMessage());
+        }
+        if (!batch.isEmpty()) {
+            persistBatch(batch, state, progress);
+        }
+    }
+
+    private void persistBatch(List<Row> batch, ImportState state, Progress progress) {
+        BatchResult result = new BatchResult(takenAccounts(batch));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Row row : batch) {
+                    try {
+                        switch (row.type()) {
+                            case "owner" -> importOwner(row, state, result);
+                            case "pet" -> importPet(row, state, result);
+                            case "visit" -> importVisit(row, state, result);
+                            default -> throw new IllegalArgumentException("Unknown record type '" + row.type() + "'");
+                        }
+                        result.accepted.add(row.line());
+                    } catch (IllegalArgumentException e) {
+                        progress.fail(row.line(), e.getMessage());
+                    }
+                }
+                entityManager.flush();
+            });
+        } catch (RuntimeException e) {
+            // A database error rolls back the whole batch: report every row that had been accepted in it
+            String reason = "Batch rolled back: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            logger.warn("Clinic import batch starting at line {} rolled back", batch.get(0).line(), e);
+            result.accepted.forEach(line -> progress.fail(line, reason));
+            return;
+        }
+
+        state.ownerRefs.putAll(result.ownerRefs);
+        state.petRefs.putAll(result.petRefs);
+        progress.owners.addAndGet(result.owners);
+        progress.pets.addAndGet(result.pets);
+        progress.visits.addAndGet(result.visits);
+        logger.debug("Clinic import: {} rows read", progress.rowsRead.get());
+    }
+
+    // Every column is read and both entities are validated before anything is persisted: a rejected row must not
+    // leave a user behind in the committed batch
+    private void importOwner(Row row, ImportState state, BatchResult result) {
+        String ref = row.text(1, "owner ref", true);
+        if (state.ownerRefs.containsKey(ref) || result.ownerRefs.containsKey(ref)) {
+            throw new IllegalArgumentException("Duplicate owner ref '" + ref + "'");
+        }
+        String name = row.text(2, "name", true);
+        String email = row.text(3, "email", true);
+        String phone = row.text(4, "phone", false);
+        String address = row.text(5, "address", false);
+
+        User user = new User();
+        user.setName(name);
+        user.setUsername(email);
+        user.setEmail(email);
+        user.setPassword(LOCKED_PASSWORD_PREFIX + UUID.randomUUID());
+        user.setRoles(Set.of(entityManager.getReference(Role.class, state.userRoleId)));
+
+        Owner owner = new Owner();
+        owner.setName(name);
+        owner.setEmail(email);
+        owner.setPhone(phone);
+        owner.setAddress(address);
+        owner.setUser(user);
+
+        Set<ConstraintViolation<?>> violations = new HashSet<>(validator.validate(user));
+        violations.addAll(validator.validate(owner));
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (!result.takenAccounts.add(email.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("An account with email " + email + " already exists");
+        }
+
+        entityManager.persist(user);
+        entityManager.persist(owner);
+
+        result.ownerRefs.put(ref, owner.getId());
+        result.owners++;
+    }
+
+    private void importPet(Row row, ImportState state, BatchResult result) {
+        String ref = row.text(1, "pet ref", true);
+        if (state.petRefs.containsKey(ref) || result.petRefs.containsKey(ref)) {
+            throw new IllegalArgumentException("Duplicate pet ref '" + ref + "'");
+        }
+        Long ownerId = resolve(row.text(2, "owner ref", true), state.ownerRefs, result.ownerRefs, "owner");
+
+        Pet pet = new Pet();
+        pet.setName(row.text(3, "name", true));
+        pet.setBreed(row.text(4, "breed", false));
+        pet.setBirthDate(row.date(5, "birth date", false));
+        pet.setOwner(entityManager.getReference(Owner.class, ownerId));
+        entityManager.persist(pet);
+
+        result.petRefs.put(ref, pet.getId());
+        result.pets++;
+    }
+
+    private void importVisit(Row row, ImportState state, BatchResult result) {
+        Long petId = resolve(row.text(1, "pet ref", true), state.petRefs, result.petRefs, "pet");
+        String vetKey = row.text(2, "vet", true);
+        Long vetId = state.vetKeys.get(vetKey.toLowerCase(Locale.ROOT));
+        if (vetId == null) {
+            throw new IllegalArgumentException("Unknown vet '" + vetKey + "'");
+        }
+
+        Visit visit = new Visit();
+        visit.setVisitDate(row.date(3, "visit date", true));
+        visit.setStatus(row.status(4));
+        visit.setDescription(row.text(5, "description", true));
+        visit.setPet(entityManager.getReference(Pet.class, petId));
+        visit.setVet(entityManager.getReference(Vet.class, vetId));
+        entityManager.persist(visit);
+
+        result.visits++;
+    }
+
+    private static Long resolve(String ref, Map<String, Long> committed, Map<String, Long> inBatch, String kind) {
+        Long id = inBatch.get(ref);
+        if (id == null) {
+            id = committed.get(ref);
+        }
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown " + kind + " ref '" + ref + "' (it must be defined on an earlier line)");
+        }
+        return id;
+    }
+
+    // One query per batch instead of one existence check per owner row
+    private Set<String> takenAccounts(List<Row> batch) {
+        Set<String> emails = new HashSet<>();
+        for (Row row : batch) {
+            if (row.type().equals("owner") && row.fields().size() > 3 && !row.fields().get(3).isBlank()) {
+                emails.add(row.fields().get(3).trim());
+            }
+        }
+        Set<String> taken = new HashSet<>();
+        if (!emails.isEmpty()) {
+            for (Object[] account : userRepository.findTakenEmailsOrUsernames(emails)) {
+                for (Object value : account) {
+                    if (value != null) {
+                        taken.add(value.toString().toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+        return taken;
+    }
+
+    // Vets are few: id and email → id, resolved in memory for every visit row
+    private Map<String, Long> loadVetKeys() {
+        Map<String, Long> keys = new HashMap<>();
+        for (Vet vet : vetRepository.findAll()) {
+            keys.put(String.valueOf(vet.getId()), vet.getId());
+            if (vet.getEmail() != null && !vet.getEmail().isBlank()) {
+                keys.putIfAbsent(vet.getEmail().trim().toLowerCase(Locale.ROOT), vet.getId());
+            }
+        }
+        return keys;
+    }
+
+    private record Row(long line, String type, List<String> fields) {
+
+        String text(int index, String column, boolean required) {
+            String value = index < fields.size() ? fields.get(index).trim() : "";
+            if (value.isEmpty()) {
+                if (required) {
+                    throw new IllegalArgumentException("Missing " + column);
+                }
+                return null;
+            }
+            if (value.length() > MAX_TEXT_LENGTH) {
+                throw new IllegalArgumentException(column + " is longer than " + MAX_TEXT_LENGTH + " characters");
+            }
+            return value;
+        }
+
+        LocalDate date(int index, String column, boolean required) {
+            String value = text(index, column, required);
+            try {
+                return value != null ? LocalDate.parse(value) : null;
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid " + column + " '" + value + "', expected yyyy-MM-dd");
+            }
+        }
+
+        VisitStatus status(int index) {
+            String value = text(index, "status", false);
+            try {
+                return value != null ? VisitStatus.valueOf(value.toUpperCase(Locale.ROOT)) : VisitStatus.COMPLETED;
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid status '" + value + "'");
+            }
+        }
+    }
+
+    // Refs committed so far: only ids are kept, never entities
+    private static class ImportState {
+        final Long userRoleId;
+        final Map<String, Long> vetKeys;
+        final Map<String, Long> ownerRefs = new HashMap<>();
+        final Map<String, Long> petRefs = new HashMap<>();
+
+        ImportState(Long userRoleId, Map<String, Long> vetKeys) {
+            this.userRoleId = userRoleId;
+            this.vetKeys = vetKeys;
+        }
+    }
+
+    // What one batch added; merged into ImportState only after the batch commits
+    private static class BatchResult {
+        final Set<String> takenAccounts;
+        final Map<String, Long> ownerRefs = new HashMap<>();
+        final Map<String, Long> petRefs = new HashMap<>();
+        final List<Long> accepted = new ArrayList<>();
+        long owners;
+        long pets;
+        long visits;
+
+        BatchResult(Set<String> takenAccounts) {
+            this.takenAccounts = takenAccounts;
+        }
+    }
+
+    // Counters are read concurrently by the status endpoint
+    private static class Progress {
+        final AtomicLong rowsRead = new AtomicLong();
+        final AtomicLong owners = new AtomicLong();
+        final AtomicLong pets = new AtomicLong();
+        final AtomicLong visits = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final ConcurrentLinkedQueue<ImportReport.RowError> errors = new ConcurrentLinkedQueue<>();
+        final int maxErrors;
+        final Instant startedAt = Instant.now();
+        volatile Instant finishedAt;
+
+        Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void fail(long line, String message) {
+            if (failed.incrementAndGet() <= maxErrors) {
+                errors.add(new ImportReport.RowError(line, message));
+            }
+        }
+
+        void finish() {
+            finishedAt = Instant.now();
+        }
+
+        ImportReport snapshot() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            long failedRows = failed.get();
+            return new ImportReport(finishedAt == null, rowsRead.get(), owners.get(), pets.get(), visits.get(),
+                    failedRows, List.copyOf(errors), failedRows > maxErrors, startedAt,
+                    end.toEpochMilli() - startedAt.toEpochMilli());
+        }
+    }
+}
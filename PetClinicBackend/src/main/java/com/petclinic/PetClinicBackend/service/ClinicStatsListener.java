@@ -0,0 +1,159 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.util.SearchIndex;
+import jakarta.persistence.*;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.YearMonth;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+// 📊 JPA entity listener feeding ClinicStatsService, VetLoadBalancer and SearchService; deltas are applied only
+// once the transaction commits
+@Component
+public class ClinicStatsListener {
+
+    // ✅ Looked up lazily: the listener is created while the EntityManagerFactory is still being built
+    private final ObjectProvider<ClinicStatsService> statsService;
+    private final ObjectProvider<VetLoadBalancer> loadBalancer;
+    private final ObjectProvider<SearchService> searchService;
+
+    public ClinicStatsListener(ObjectProvider<ClinicStatsService> statsService,
+                               ObjectProvider<VetLoadBalancer> loadBalancer,
+                               ObjectProvider<SearchService> searchService) {
+        this.statsService = statsService;
+        this.loadBalancer = loadBalancer;
+        this.searchService = searchService;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        reindex(entity);
+        if (entity instanceof Owner) {
+            afterCommit(stats -> stats.ownerAdded(1));
+        } else if (entity instanceof Pet) {
+            afterCommit(stats -> stats.petAdded(1));
+        } else if (entity instanceof Vet vet) {
+            afterCommit(stats -> stats.vetSaved(vet.getId(), vet.getName(), true));
+        } else if (entity instanceof Visit visit) {
+            ClinicStatsService.VisitKey after = keyOf(visit);
+            BookingEngine.VetDay loadAfter = loadDayOf(visit);
+            visit.capturePersistedState();
+            afterCommit(stats -> stats.visitChanged(null, after));
+            afterCommit(loadBalancer, balancer -> balancer.visitMoved(null, loadAfter));
+        }
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        reindex(entity);
+        if (entity instanceof Vet vet) {
+            afterCommit(stats -> stats.vetSaved(vet.getId(), vet.getName(), false));
+        } else if (entity instanceof Visit visit) {
+            ClinicStatsService.VisitKey before = persistedKeyOf(visit);
+            ClinicStatsService.VisitKey after = keyOf(visit);
+            BookingEngine.VetDay loadBefore = persistedLoadDayOf(visit);
+            BookingEngine.VetDay loadAfter = loadDayOf(visit);
+            visit.capturePersistedState();
+            if (!after.equals(before)) {
+                afterCommit(stats -> stats.visitChanged(before, after));
+            }
+            if (!Objects.equals(loadBefore, loadAfter)) {
+                afterCommit(loadBalancer, balancer -> balancer.visitMoved(loadBefore, loadAfter));
+            }
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        SearchService.Type type = SearchService.typeOf(entity);
+        if (type != null) {
+            Long id = idOf(entity);
+            afterCommit(searchService, search -> search.removed(type, id));
+        }
+        if (entity instanceof Owner) {
+            afterCommit(stats -> stats.ownerAdded(-1));
+        } else if (entity instanceof Pet) {
+            afterCommit(stats -> stats.petAdded(-1));
+        } else if (entity instanceof Vet vet) {
+            afterCommit(stats -> stats.vetRemoved(vet.getId()));
+        } else if (entity instanceof Visit visit) {
+            ClinicStatsService.VisitKey before = persistedKeyOf(visit);
+            BookingEngine.VetDay loadBefore = persistedLoadDayOf(visit);
+            afterCommit(stats -> stats.visitChanged(before, null));
+            afterCommit(loadBalancer, balancer -> balancer.visitMoved(loadBefore, null));
+        }
+    }
+
+    @PostLoad
+    public void onLoad(Object entity) {
+        if (entity instanceof Visit visit) {
+            visit.capturePersistedState();
+        }
+    }
+
+    // 🔎 The document is taken now, while the entity holds exactly what is being committed
+    private void reindex(Object entity) {
+        SearchIndex.Doc doc = SearchService.documentOf(entity);
+        if (doc != null) {
+            afterCommit(searchService, search -> search.indexed(doc));
+        }
+    }
+
+    private static Long idOf(Object entity) {
+        return entity instanceof Owner owner ? owner.getId() : entity instanceof Pet pet ? pet.getId()
+                : entity instanceof Visit visit ? visit.getId() : null;
+    }
+
+    private static ClinicStatsService.VisitKey keyOf(Visit visit) {
+        return new ClinicStatsService.VisitKey(
+                visit.getStatus(),
+                visit.getVet() != null ? visit.getVet().getId() : null,
+                visit.getVisitDate() != null ? YearMonth.from(visit.getVisitDate()) : null);
+    }
+
+    private static ClinicStatsService.VisitKey persistedKeyOf(Visit visit) {
+        return new ClinicStatsService.VisitKey(
+                visit.getPersistedStatus(),
+                visit.getPersistedVetId(),
+                visit.getPersistedVisitDate() != null ? YearMonth.from(visit.getPersistedVisitDate()) : null);
+    }
+
+    private static BookingEngine.VetDay loadDayOf(Visit visit) {
+        return VetLoadBalancer.countedDay(visit.getVet() != null ? visit.getVet().getId() : null,
+                visit.getVisitDate(), visit.getStatus());
+    }
+
+    private static BookingEngine.VetDay persistedLoadDayOf(Visit visit) {
+        return VetLoadBalancer.countedDay(visit.getPersistedVetId(), visit.getPersistedVisitDate(),
+                visit.getPersistedStatus());
+    }
+
+    private void afterCommit(Consumer<ClinicStatsService> change) {
+        afterCommit(statsService, change);
+    }
+
+    private static <T> void afterCommit(ObjectProvider<T> provider, Consumer<T> change) {
+        T target = provider.getIfAvailable();
+        if (target == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.accept(target);
+                }
+            });
+        } else {
+            change.accept(target);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.dto.ClinicStatsDTO;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.PetRepository;
+import com.petclinic.PetClinicBackend.repository.VetRepository;
+import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 📊 Dashboard counters kept current by ClinicStatsListener and periodically reconciled against the DB
+@Service
+public class ClinicStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClinicStatsService.class);
+
+    private final OwnerRepository ownerRepository;
+    private final PetRepository petRepository;
+    private final VetRepository vetRepository;
+    private final VisitRepository visitRepository;
+
+    private final AtomicLong owners = new AtomicLong();
+    private final AtomicLong pets = new AtomicLong();
+    private final AtomicLong vets = new AtomicLong();
+    private final AtomicLong visits = new AtomicLong();
+    private final Map<VisitStatus, AtomicLong> visitsByStatus = new EnumMap<>(VisitStatus.class);
+    private final ConcurrentHashMap<Long, AtomicLong> visitsByVet = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<YearMonth, AtomicLong> visitsByMonth = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, String> vetNames = new ConcurrentHashMap<>();
+    private volatile Instant lastReconciledAt;
+
+    public ClinicStatsService(OwnerRepository ownerRepository, PetRepository petRepository,
+                              VetRepository vetRepository, VisitRepository visitRepository) {
+        this.ownerRepository = ownerRepository;
+        this.petRepository = petRepository;
+        this.vetRepository = vetRepository;
+        this.visitRepository = visitRepository;
+        for (VisitStatus status : VisitStatus.values()) {
+            visitsByStatus.put(status, new AtomicLong());
+        }
+    }
+
+    // --- Deltas from entity listeners (applied after commit) ---
+
+    public void ownerAdded(int delta) {
+        owners.addAndGet(delta);
+    }
+
+    public void petAdded(int delta) {
+        pets.addAndGet(delta);
+    }
+
+    public void vetSaved(Long vetId, String name, boolean created) {
+        if (created) {
+            vets.incrementAndGet();
+        }
+        if (vetId != null) {
+            vetNames.put(vetId, name != null ? name : "");
+        }
+    }
+
+    public void vetRemoved(Long vetId) {
+        vets.decrementAndGet();
+        if (vetId != null) {
+            vetNames.remove(vetId);
+            visitsByVet.remove(vetId);
+        }
+    }
+
+    // ✅ before == null → insert, after == null → delete, both → update
+    public void visitChanged(VisitKey before, VisitKey after) {
+        if (before == null && after != null) {
+            visits.incrementAndGet();
+        } else if (before != null && after == null) {
+            visits.decrementAndGet();
+        }
+        if (before != null) {
+            apply(before, -1);
+        }
+        if (after != null) {
+            apply(after, 1);
+        }
+    }
+
+    private void apply(VisitKey key, int delta) {
+        if (key.status() != null) {
+            visitsByStatus.get(key.status()).addAndGet(delta);
+        }
+        if (key.vetId() != null) {
+            visitsByVet.computeIfAbsent(key.vetId(), id -> new AtomicLong()).addAndGet(delta);
+        }
+        if (key.month() != null) {
+            visitsByMonth.computeIfAbsent(key.month(), m -> new AtomicLong()).addAndGet(delta);
+        }
+    }
+
+    public ClinicStatsDTO snapshot() {
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        visitsByStatus.forEach((status, count) -> byStatus.put(status.name(), count.get()));
+
+        Map<String, Long> byMonth = new TreeMap<>();
+        visitsByMonth.forEach((month, count) -> {
+            if (count.get() > 0) {
+                byMonth.put(month.toString(), count.get());
+            }
+        });
+
+        List<ClinicStatsDTO.VetVisitCount> byVet = new ArrayList<>();
+        vetNames.forEach((vetId, name) -> {
+            AtomicLong count = visitsByVet.get(vetId);
+            byVet.add(new ClinicStatsDTO.VetVisitCount(vetId, name, count != null ? count.get() : 0L));
+        });
+        byVet.sort(Comparator.comparing(ClinicStatsDTO.VetVisitCount::getVetId));
+
+        return new ClinicStatsDTO(owners.get(), pets.get(), vets.get(), visits.get(),
+                byStatus, byMonth, byVet, lastReconciledAt);
+    }
+
+    // 🔢 Visits matching a status, vet and date range (null = any), estimated from the counters alone: each filter's
+    // share of all visits, assuming the filters are independent; a partial month counts pro rata by days
+    public long estimateVisits(VisitStatus status, Long vetId, LocalDate from, LocalDate to) {
+        long total = visits.get();
+        if (total <= 0) {
+            return 0L;
+        }
+        double estimate = total;
+        if (status != null) {
+            estimate *= (double) visitsByStatus.get(status).get() / total;
+        }
+        if (vetId != null) {
+            AtomicLong count = visitsByVet.get(vetId);
+            estimate *= (double) (count != null ? count.get() : 0L) / total;
+        }
+        if (from != null || to != null) {
+            double inRange = 0;
+            for (Map.Entry<YearMonth, AtomicLong> entry : visitsByMonth.entrySet()) {
+                LocalDate first = entry.getKey().atDay(1);
+                LocalDate last = entry.getKey().atEndOfMonth();
+                LocalDate start = from != null && from.isAfter(first) ? from : first;
+                LocalDate end = to != null && to.isBefore(last) ? to : last;
+                if (!end.isBefore(start)) {
+                    inRange += entry.getValue().get() * (ChronoUnit.DAYS.between(start, end) + 1.0)
+                            / entry.getKey().lengthOfMonth();
+                }
+            }
+            estimate *= inRange / total;
+        }
+        return Math.max(0L, Math.round(estimate));
+    }
+
+    // 🔄 Recompute everything from the DB to correct drift (rollbacks, bulk deletes, other writers)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${stats.reconcile-interval:300000}",
+            fixedDelayString = "${stats.reconcile-interval:300000}")
+    public void reconcile() {
+        try {
+            owners.set(ownerRepository.count());
+            pets.set(petRepository.count());
+            visits.set(visitRepository.count());
+
+            List<Vet> allVets = vetRepository.findAll();
+            vets.set(allVets.size());
+            Map<Long, String> names = new HashMap<>();
+            allVets.forEach(vet -> names.put(vet.getId(), vet.getName() != null ? vet.getName() : ""));
+            vetNames.keySet().retainAll(names.keySet());
+            vetNames.putAll(names);
+
+            visitsByStatus.values().forEach(count -> count.set(0));
+            for (Object[] row : visitRepository.countByStatus()) {
+                visitsByStatus.get((VisitStatus) row[0]).set((Long) row[1]);
+            }
+
+            Map<Long, Long> byVet = new HashMap<>();
+            for (Object[] row : visitRepository.countByVet()) {
+                byVet.put((Long) row[0], (Long) row[1]);
+            }
+            visitsByVet.keySet().retainAll(byVet.keySet());
+            byVet.forEach((vetId, count) -> visitsByVet.computeIfAbsent(vetId, id -> new AtomicLong()).set(count));
+
+            Map<YearMonth, Long> byMonth = new HashMap<>();
+            for (Object[] row : visitRepository.countByMonth()) {
+                byMonth.put(YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()), (Long) row[2]);
+            }
+            visitsByMonth.keySet().retainAll(byMonth.keySet());
+            byMonth.forEach((month, count) -> visitsByMonth.computeIfAbsent(month, m -> new AtomicLong()).set(count));
+
+            lastReconciledAt = Instant.now();
+            logger.info("📊 Clinic stats reconciled: {} owners, {} pets, {} vets, {} visits",
+                    owners.get(), pets.get(), vets.get(), visits.get());
+        } catch (Exception e) {
+            logger.error("Clinic stats reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    public record VisitKey(VisitStatus status, Long vetId, YearMonth month) {
+    }
+}
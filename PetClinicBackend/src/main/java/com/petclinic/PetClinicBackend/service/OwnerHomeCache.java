@@ -0,0 +1,108 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.util.BoundedCache;
+import com.petclinic.PetClinicBackend.util.ResourceVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * 🏠 Per-owner near cache of the home-screen reads (/api/owners/me, /api/pets/mine, /api/visits/mine). Each entry
+ * holds the response body together with its ETag, so a repeat or conditional request is answered without a query.
+ * Writes evict the owner's entries once their transaction commits. A load that overlaps an eviction is returned
+ * but not stored, so data read before a write is never cached after it. The cache is per instance: its TTL bounds
+ * how long writes made on another instance can go unseen. Cached bodies are shared and must not be modified.
+ */
+@Component
+public class OwnerHomeCache {
+
+    public enum Resource { PROFILE, PETS, VISITS }
+
+    private final BoundedCache<Key, Entry<?>> cache;
+    private final TransactionTemplate readOnly;
+    private long evictions; // guarded by this: bumped by every eviction, checked before storing a load
+
+    public OwnerHomeCache(PlatformTransactionManager transactionManager,
+                          @Value("${owners.home-cache.max-size:30000}") int maxSize,
+                          @Value("${owners.home-cache.ttl:300000}") long ttlMillis) {
+        this.cache = new BoundedCache<>(maxSize, ttlMillis);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    // Cached entry, or the loader's result (run in one read-only transaction, so body and ETag agree)
+    @SuppressWarnings("unchecked")
+    public <T> Entry<T> get(Long ownerId, Resource resource, Supplier<Entry<T>> loader) {
+        Key key = new Key(ownerId, resource);
+        Entry<T> cached = (Entry<T>) cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation;
+        synchronized (this) {
+            generation = evictions;
+        }
+        Entry<T> loaded = readOnly.execute(status -> loader.get());
+        synchronized (this) {
+            if (generation == evictions) {
+                cache.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // Called from PetService / VisitService / OwnerService writes; null ids (no owner) are ignored
+    public void evictAfterCommit(Long... ownerIds) {
+        afterCommit(() -> evict(ownerIds));
+    }
+
+    // Vet changes show up in every owner's visit list
+    public void evictAllAfterCommit() {
+        afterCommit(this::evictAll);
+    }
+
+    public synchronized void evict(Long... ownerIds) {
+        evictions++;
+        for (Long ownerId : ownerIds) {
+            if (ownerId != null) {
+                for (Resource resource : Resource.values()) {
+                    cache.invalidate(new Key(ownerId, resource));
+                }
+            }
+        }
+    }
+
+    public synchronized void evictAll() {
+        evictions++;
+        cache.invalidateAll();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    // Response body and its validators
+    public record Entry<T>(T body, ResourceVersion version) {
+    }
+
+    private record Key(Long ownerId, Resource resource) {
+    }
+}
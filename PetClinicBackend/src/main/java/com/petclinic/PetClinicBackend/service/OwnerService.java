@@ -1,31 +1,106 @@
 package com.petclinic.PetClinicBackend.service;
 
+import com.petclinic.PetClinicBackend.dto.CursorPage;
+import com.petclinic.PetClinicBackend.dto.OwnerDTO;
 import com.petclinic.PetClinicBackend.exception.ResourceNotFoundException;
 import com.petclinic.PetClinicBackend.model.Owner;
 import com.petclinic.PetClinicBackend.model.User;
 import com.petclinic.PetClinicBackend.repository.OwnerRepository;
 import com.petclinic.PetClinicBackend.repository.UserRepository;
+import com.petclinic.PetClinicBackend.security.PrincipalCache;
+import com.petclinic.PetClinicBackend.util.KeysetPager;
+import com.petclinic.PetClinicBackend.util.ResourceVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class OwnerService {
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private OwnerRepository ownerRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private OwnerHomeCache homeCache;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
     // ✅ Get all owners
     public List<Owner> getAllOwners() {
         return ownerRepository.findAll();
     }
 
+    // 📦 DTO projections: one query, no lazy pets/user loading during serialization.
+    // 🚦 Concurrent calls share one running query.
+    public List<OwnerDTO> getAllOwnerDTOs() {
+        return singleFlight.load("owners.all", () -> List.copyOf(ownerRepository.findAllAsDTO()));
+    }
+
+    public Optional<OwnerDTO> getOwnerDTOById(Long id) {
+        return ownerRepository.findDTOById(id);
+    }
+
+    public OwnerDTO getOwnerDTOByUsername(String email) {
+        return ownerRepository.findDTOByUserEmail(email.trim())
+                .orElseThrow(() -> new ResourceNotFoundException("Owner", "email", email));
+    }
+
+    // 🏠 GET /api/owners/me: DTO and ETag from the per-owner cache (404 when the login has no owner)
+    public OwnerHomeCache.Entry<OwnerDTO> getMyOwnerEntry(String email) {
+        Long ownerId = userService.getCurrentOwnerId();
+        return homeCache.get(ownerId, OwnerHomeCache.Resource.PROFILE, () -> new OwnerHomeCache.Entry<>(
+                getOwnerDTOByUsername(email),
+                versionOf(ownerRepository.findVersionById(ownerId))
+                        .orElseThrow(() -> new ResourceNotFoundException("Owner", "email", email))));
+    }
+
+    // 🏷️ ETag / Last-Modified source for the owner endpoints; empty when the owner does not exist
+    public Optional<ResourceVersion> getOwnerVersionById(Long id) {
+        return versionOf(ownerRepository.findVersionById(id));
+    }
+
+    private static Optional<ResourceVersion> versionOf(List<Object[]> rows) {
+        return rows.isEmpty() ? Optional.empty() : Optional.of(ResourceVersion.of("owner", rows));
+    }
+
+    // 📄 Keyset page of owners, user fetch-joined for the DTO username
+    public CursorPage<OwnerDTO> getOwnerPage(String cursor, Integer size, String sort, boolean withTotal) {
+        Sort order = KeysetPager.parseSort(sort, Set.of("id", "name", "email"), Sort.by("id"));
+        Specification<Owner> withUser = (root, query, cb) -> {
+            if (query != null && !Long.class.equals(query.getResultType())) {
+                root.fetch("user", JoinType.LEFT);
+            }
+            return null;
+        };
+        return KeysetPager.scroll(ownerRepository, withUser, order, cursor, size, withTotal, OwnerDTO::new);
+    }
+
     // ✅ Get owner by ID
     public Optional<Owner> getOwnerById(Long id) {
         return ownerRepository.findById(id);
@@ -33,6 +108,7 @@ public class OwnerService {
 
     // ✅ Create new owner
     public Owner createOwner(Owner owner) {
+        owner.setId(null); // always a new row, never a merge over an existing owner
         if (owner.getUser() != null && owner.getUser().getId() != null) {
             Long userId = owner.getUser().getId();
 
@@ -49,7 +125,8 @@ public class OwnerService {
         return ownerRepository.save(owner);
     }
 
-    // ✅ Update owner
+    // ✅ Update owner (transactional so the returned owner's lazy user can still be mapped)
+    @Transactional
     public Owner updateOwner(Long id, Owner ownerDetails) {
         Owner owner = ownerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Owner", "id", id));
@@ -65,6 +142,7 @@ public class OwnerService {
             owner.setUser(user);
         }
 
+        homeCache.evictAfterCommit(id);
         return ownerRepository.save(owner);
     }
 
@@ -78,11 +156,14 @@ public class OwnerService {
 
         // 1. Delete Owner (cascade deletes Pets)
         ownerRepository.delete(owner);
+        homeCache.evictAfterCommit(id);
 
         // 2. Delete User Roles and User
         if (user != null) {
             userRepository.deleteRolesByUserId(user.getId());
             userRepository.delete(user);
+            principalCache.evictAfterCommit(user.getEmail());
+            refreshTokenService.revokeAllForEmail(user.getEmail());
         }
     }
 
@@ -93,16 +174,23 @@ public class OwnerService {
     }
 
     // ✅ Get owner by email
+    @Transactional
     public Owner getOwnerByUsername(String usernameOrEmail) {
         String email = usernameOrEmail.trim();
+        Session session = entityManager.unwrap(Session.class);
+
+        User user = session.bySimpleNaturalId(User.class).loadOptional(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
+        return session.bySimpleNaturalId(Owner.class).loadOptional(user)
+                .orElseThrow(() -> new ResourceNotFoundException("Owner", "user_id", user.getId()));
+    }
 
-        return ownerRepository.findByUser_Email(email)
-                .orElseGet(() -> {
-                    User user = userRepository.findByEmail(email)
-                            .orElseThrow(() -> new ResourceNotFoundException("User", "email", email));
-                    return ownerRepository.findByUser_Id(user.getId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Owner", "user_id", user.getId()));
-                });
+    // 🗃️ Login email → user → owner as two natural-id lookups: repeat calls resolve from the L2 cache, no SQL
+    @Transactional
+    public Optional<Owner> findOwnerByUserEmail(String email) {
+        Session session = entityManager.unwrap(Session.class);
+        return session.bySimpleNaturalId(User.class).loadOptional(email.trim())
+                .flatMap(user -> session.bySimpleNaturalId(Owner.class).loadOptional(user));
     }
 
     public Owner getOwnerByEmail(String email) {
@@ -1,6 +1,8 @@
 package com.petclinic.PetClinicBackend.service;
 
 import com.petclinic.PetClinicBackend.config.SecurityUtil;
+import com.petclinic.PetClinicBackend.dto.CursorPage;
+import com.petclinic.PetClinicBackend.dto.PetResponseDTO;
 import com.petclinic.PetClinicBackend.exception.ResourceNotFoundException;
 import com.petclinic.PetClinicBackend.model.Owner;
 import com.petclinic.PetClinicBackend.model.Pet;
@@ -8,13 +10,21 @@ import com.petclinic.PetClinicBackend.model.Visit;
 import com.petclinic.PetClinicBackend.repository.OwnerRepository;
 import com.petclinic.PetClinicBackend.repository.PetRepository;
 import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import com.petclinic.PetClinicBackend.security.OwnerScope;
+import com.petclinic.PetClinicBackend.util.KeysetPager;
+import com.petclinic.PetClinicBackend.util.ResourceVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PetService {
@@ -24,11 +34,18 @@ public class PetService {
     private final PetRepository petRepository;
     private final OwnerRepository ownerRepository;
     private final VisitRepository visitRepository;
+    private final UserService userService;
+    private final OwnerScope ownerScope;
+    private final OwnerHomeCache homeCache;
 
-    public PetService(PetRepository petRepository, OwnerRepository ownerRepository, VisitRepository visitRepository) {
+    public PetService(PetRepository petRepository, OwnerRepository ownerRepository, VisitRepository visitRepository,
+                      UserService userService, OwnerScope ownerScope, OwnerHomeCache homeCache) {
         this.petRepository = petRepository;
         this.ownerRepository = ownerRepository;
         this.visitRepository = visitRepository;
+        this.userService = userService;
+        this.ownerScope = ownerScope;
+        this.homeCache = homeCache;
     }
 
     public List<Pet> getAllPets() {
@@ -40,83 +57,134 @@ public class PetService {
         return petRepository.findAll();
     }
 
+    // 📦 Same as getAllPets but projected straight into DTOs in one query
+    public List<PetResponseDTO> getAllPetDTOs() {
+        if (!userService.isCurrentUserAdmin()) {
+            logger.warn("Unauthorized access attempt to fetch all pets");
+            throw new AccessDeniedException("Only admins can view all pets");
+        }
+        return petRepository.findAllAsDTO();
+    }
+
+    public List<PetResponseDTO> getPetDTOsByOwnerId(Long ownerId) {
+        validateOwnershipOrAdmin(ownerId);
+        return petRepository.findDTOsByOwnerId(ownerId);
+    }
+
+    public List<PetResponseDTO> getMyPetDTOs() {
+        return petRepository.findDTOsByOwnerId(userService.getCurrentOwnerId());
+    }
+
+    // 🏠 GET /api/pets/mine: DTOs and ETag from the per-owner cache
+    public OwnerHomeCache.Entry<List<PetResponseDTO>> getMyPetsEntry() {
+        Long ownerId = userService.getCurrentOwnerId();
+        return homeCache.get(ownerId, OwnerHomeCache.Resource.PETS, () -> new OwnerHomeCache.Entry<>(
+                List.copyOf(petRepository.findDTOsByOwnerId(ownerId)),
+                ResourceVersion.of("pets", petRepository.findVersionsByOwnerId(ownerId))));
+    }
+
+    // 🏷️ ETag sources for the pet endpoints, checked with the same authorization as the reads they guard
+    public ResourceVersion getPetsVersionByOwnerId(Long ownerId) {
+        validateOwnershipOrAdmin(ownerId);
+        return ResourceVersion.of("pets", petRepository.findVersionsByOwnerId(ownerId));
+    }
+
+    public Optional<ResourceVersion> getPetVersion(Long petId) {
+        List<Object[]> rows = ownerScope.restrictedOwnerId()
+                .map(ownerId -> petRepository.findVersionByIdAndOwnerId(petId, ownerId))
+                .orElseGet(() -> petRepository.findVersionById(petId));
+        return rows.isEmpty() ? Optional.empty() : Optional.of(ResourceVersion.of("pet", rows));
+    }
+
+    // 📄 Keyset page of all pets (admins only); owner and user are fetch-joined to avoid N+1
+    public CursorPage<PetResponseDTO> getPetPage(String cursor, Integer size, String sort, boolean withTotal) {
+        if (!userService.isCurrentUserAdmin()) {
+            throw new AccessDeniedException("Only admins can view all pets");
+        }
+        Sort order = KeysetPager.parseSort(sort, Set.of("id", "name", "birthDate"), Sort.by("id"));
+        Specification<Pet> withOwner = (root, query, cb) -> {
+            if (query != null && !Long.class.equals(query.getResultType())) {
+                root.fetch("owner").fetch("user", JoinType.LEFT);
+            }
+            return null;
+        };
+        return KeysetPager.scroll(petRepository, withOwner, order, cursor, size, withTotal, PetResponseDTO::new);
+    }
+
     public List<Pet> getPetsByOwnerId(Long ownerId) {
         validateOwnershipOrAdmin(ownerId);
         logger.info("Fetching pets for owner with ID {}", ownerId);
         return petRepository.findByOwnerId(ownerId);
     }
 
-    public Pet getPetById(Long petId) {
-        Pet pet = petRepository.findById(petId)
-                .orElseThrow(() -> new ResourceNotFoundException("Pet", "id", petId));
-        validateOwnershipOrAdmin(pet.getOwner().getId());
+    // 📦 Pet endpoints map to DTOs inside the transaction: open-in-view is off, owner.user is lazy
+    @Transactional(readOnly = true)
+    public PetResponseDTO getPetById(Long petId) {
+        Pet pet = findAccessiblePet(petId);
         logger.info("Fetching pet with ID {}", petId);
-        return pet;
+        return new PetResponseDTO(pet);
     }
 
     @Transactional
-    public Pet createPet(Long ownerId, Pet pet) {
+    public PetResponseDTO createPet(Long ownerId, Pet pet) {
         validateOwnershipOrAdmin(ownerId);
         Owner owner = ownerRepository.findById(ownerId)
                 .orElseThrow(() -> new ResourceNotFoundException("Owner", "id", ownerId));
+        pet.setId(null); // always a new row, never a merge over an existing pet
         pet.setOwner(owner);
         Pet savedPet = petRepository.save(pet);
+        homeCache.evictAfterCommit(ownerId);
         logger.info("Created new pet with ID {} for owner {}", savedPet.getId(), ownerId);
-        return savedPet;
+        return new PetResponseDTO(savedPet);
     }
 
     @Transactional
-    public Pet updatePet(Long petId, Pet updatedPet) {
-        Pet pet = petRepository.findById(petId)
-                .orElseThrow(() -> new ResourceNotFoundException("Pet", "id", petId));
-        validateOwnershipOrAdmin(pet.getOwner().getId());
+    public PetResponseDTO updatePet(Long petId, Pet updatedPet) {
+        Pet pet = findAccessiblePet(petId);
 
         if (updatedPet.getName() != null) pet.setName(updatedPet.getName());
         if (updatedPet.getBreed() != null) pet.setBreed(updatedPet.getBreed());
         if (updatedPet.getBirthDate() != null) pet.setBirthDate(updatedPet.getBirthDate());
 
         Pet savedPet = petRepository.save(pet);
+        homeCache.evictAfterCommit(pet.getOwner().getId());
         logger.info("Updated pet with ID {}", savedPet.getId());
-        return savedPet;
+        return new PetResponseDTO(savedPet);
     }
 
     @Transactional
     public void deletePet(Long id) {
-        Pet pet = petRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Pet", "id", id));
-        validateOwnershipOrAdmin(pet.getOwner().getId());
+        Pet pet = findAccessiblePet(id);
         petRepository.deleteById(id);
+        homeCache.evictAfterCommit(pet.getOwner().getId());
         logger.info("Deleted pet with ID {}", id);
     }
 
+    // 🔐 Admins load any pet; everyone else only finds pets of their own owner (others look missing).
+    // Loaded by id so the L2 cache answers; the owner check reads the proxy's id without initializing it.
+    private Pet findAccessiblePet(Long petId) {
+        Optional<Long> restrictedTo = ownerScope.restrictedOwnerId();
+        return petRepository.findById(petId)
+                .filter(pet -> restrictedTo.isEmpty() || restrictedTo.get().equals(pet.getOwner().getId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Pet", "id", petId));
+    }
+
+    // ✅ Reads roles and owner id from the request's AuthorizationContext, no DB round trip
     private void validateOwnershipOrAdmin(Long ownerId) {
         String currentUsername = SecurityUtil.getCurrentUserLogin()
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", "unknown"));
 
-        logger.info("Current user trying to access: {}", currentUsername);
-
-        boolean isAdmin = SecurityUtil.hasRole("ADMIN") || SecurityUtil.hasRole("SUPERADMIN");
-
-        if (!isAdmin) {
-            Owner currentOwner = ownerRepository.findByUser_Email(currentUsername)
-                    .orElseThrow(() -> new ResourceNotFoundException("Owner", "email", currentUsername));
-
-            if (!currentOwner.getId().equals(ownerId)) {
-                logger.warn("Access denied for user {}: not owner of pet", currentUsername);
-                throw new AccessDeniedException("Access denied: You can only access your own pets.");
-            }
+        if (!userService.isCurrentUserAdmin() && !ownerId.equals(userService.getCurrentOwnerId())) {
+            logger.warn("Access denied for user {}: not owner of pet", currentUsername);
+            throw new AccessDeniedException("Access denied: You can only access your own pets.");
         }
     }
 
     public boolean isPetOwnedByUser(Long petId, String username) {
-        Pet pet = petRepository.findById(petId)
+        Long ownerId = petRepository.findOwnerIdById(petId)
                 .orElseThrow(() -> new ResourceNotFoundException("Pet not found with id: " + petId));
 
-        if (pet.getOwner() == null || pet.getOwner().getUser() == null) {
-            return false;
-        }
-
-        return username.equals(pet.getOwner().getUser().getEmail());
+        return userService.isCurrentUserOwnerOf(ownerId, username);
     }
 
     public boolean isOwnerOwnedByUser(Long ownerId, String username) {
@@ -125,25 +193,21 @@ public class PetService {
         return owner.getUser().getEmail().equals(username);
     }
 
+    // 🗃️ Owner and its pets collection come from the L2 cache once warm
+    @Transactional(readOnly = true)
     public List<Pet> getMyPets() {
-        String currentUsername = SecurityUtil.getCurrentUserLogin()
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", "unknown"));
+        Long ownerId = userService.getCurrentOwnerId();
 
-        Owner owner = ownerRepository.findByUser_Email(currentUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("Owner", "email", currentUsername));
-
-        logger.info("Fetching pets for logged-in user {}", currentUsername);
-        return petRepository.findByOwnerId(owner.getId());
+        logger.info("Fetching pets for logged-in owner {}", ownerId);
+        return ownerRepository.findById(ownerId)
+                .map(owner -> List.copyOf(owner.getPets()))
+                .orElseGet(List::of);
     }
 
     public List<Visit> getMyVisits() {
-        String currentUsername = SecurityUtil.getCurrentUserLogin()
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", "unknown"));
-
-        Owner owner = ownerRepository.findByUser_Email(currentUsername)
-                .orElseThrow(() -> new ResourceNotFoundException("Owner", "email", currentUsername));
+        Long ownerId = userService.getCurrentOwnerId();
 
-        logger.info("Fetching visits for pets owned by user {}", currentUsername);
-        return visitRepository.findByPet_Owner_Id(owner.getId());
+        logger.info("Fetching visits for pets owned by owner {}", ownerId);
+        return visitRepository.findByPet_Owner_Id(ownerId);
     }
 }
@@ -0,0 +1,191 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.exception.InvalidTokenException;
+import com.petclinic.PetClinicBackend.model.RefreshToken;
+import com.petclinic.PetClinicBackend.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int IV_BYTES = 12;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final long refreshExpirationMillis;
+    private final long reuseGraceMillis;
+    private final Supplier<Instant> clock;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh-expiration:1209600000}") long refreshExpirationMillis,
+                               @Value("${jwt.refresh-reuse-grace:30000}") long reuseGraceMillis) {
+        this(refreshTokenRepository, refreshExpirationMillis, reuseGraceMillis, Instant::now);
+    }
+
+    // clock: Instant.now outside tests
+    RefreshTokenService(RefreshTokenRepository refreshTokenRepository, long refreshExpirationMillis,
+                        long reuseGraceMillis, Supplier<Instant> clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshExpirationMillis = refreshExpirationMillis;
+        this.reuseGraceMillis = reuseGraceMillis;
+        this.clock = clock;
+    }
+
+    // ✅ New login → new token family
+    @Transactional
+    public String issue(String email) {
+        return create(email, UUID.randomUUID().toString());
+    }
+
+    // 🔄 Exchange a refresh token for its successor; presenting a spent token revokes the whole family, unless it
+    // comes back within jwt.refresh-reuse-grace of its rotation (another tab, a retry after a lost response): that
+    // gets the successor already issued for it
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findForRotation(hash(rawToken))
+                .orElseThrow(() -> new InvalidTokenException("Refresh token not recognised"));
+
+        Instant now = clock.get();
+        if (current.isRevoked()) {
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new InvalidTokenException("Refresh token has expired");
+        }
+        if (current.isUsed()) {
+            String successor = withinGrace(current, now) ? unseal(rawToken, current.getSealedSuccessor()) : null;
+            if (successor != null) {
+                return new Rotation(current.getEmail(), successor);
+            }
+            throw reuseDetected(current);
+        }
+
+        String next = newRawToken();
+        if (refreshTokenRepository.markUsed(current.getId(), now, seal(rawToken, next)) == 0) {
+            throw reuseDetected(current);
+        }
+        store(next, current.getEmail(), current.getFamilyId());
+        return new Rotation(current.getEmail(), next);
+    }
+
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    @Transactional
+    public void revokeAllForEmail(String email) {
+        refreshTokenRepository.revokeAllForEmail(email);
+    }
+
+    // 🧹 Drop expired rows so the table stays small
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int removed = refreshTokenRepository.deleteExpired(clock.get());
+        if (removed > 0) {
+            logger.info("Purged {} expired refresh tokens", removed);
+        }
+    }
+
+    private String create(String email, String familyId) {
+        String raw = newRawToken();
+        store(raw, email, familyId);
+        return raw;
+    }
+
+    private String newRawToken() {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private void store(String raw, String email, String familyId) {
+        Instant expiresAt = clock.get().plusMillis(refreshExpirationMillis);
+        refreshTokenRepository.save(new RefreshToken(hash(raw), familyId, email, expiresAt));
+    }
+
+    private boolean withinGrace(RefreshToken token, Instant now) {
+        return token.getUsedAt() != null && token.getSealedSuccessor() != null
+                && !now.isAfter(token.getUsedAt().plusMillis(reuseGraceMillis));
+    }
+
+    private InvalidTokenException reuseDetected(RefreshToken token) {
+        refreshTokenRepository.revokeFamily(token.getFamilyId());
+        logger.warn("Refresh token reuse detected for {}, family {} revoked", token.getEmail(), token.getFamilyId());
+        return new InvalidTokenException("Refresh token reuse detected; please log in again");
+    }
+
+    // 🔐 AES-GCM keyed by SHA-256 of the rotated raw token (256 random bits): the database alone cannot unseal it
+    private String seal(String rawToken, String successor) {
+        try {
+            byte[] iv = new byte[IV_BYTES];
+            secureRandom.nextBytes(iv);
+            byte[] sealed = cipher(Cipher.ENCRYPT_MODE, rawToken, iv)
+                    .doFinal(successor.getBytes(StandardCharsets.UTF_8));
+            byte[] out = new byte[IV_BYTES + sealed.length];
+            System.arraycopy(iv, 0, out, 0, IV_BYTES);
+            System.arraycopy(sealed, 0, out, IV_BYTES, sealed.length);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(out);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot seal refresh token successor", e);
+        }
+    }
+
+    // Null when it does not unseal under this raw token
+    private static String unseal(String rawToken, String sealedSuccessor) {
+        try {
+            byte[] in = Base64.getUrlDecoder().decode(sealedSuccessor);
+            byte[] iv = Arrays.copyOfRange(in, 0, IV_BYTES);
+            byte[] plain = cipher(Cipher.DECRYPT_MODE, rawToken, iv).doFinal(in, IV_BYTES, in.length - IV_BYTES);
+            return new String(plain, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Cipher cipher(int mode, String rawToken, byte[] iv) throws GeneralSecurityException {
+        byte[] key = MessageDigest.getInstance("SHA-256")
+                .digest(("successor:" + rawToken).getBytes(StandardCharsets.UTF_8));
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(mode, new SecretKeySpec(key, "AES"), new GCMParameterSpec(128, iv));
+        return cipher;
+    }
+
+    private static String hash(String raw) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(raw.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(String email, String refreshToken) {
+    }
+}
@@ -0,0 +1,205 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.dto.SearchHit;
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.PetRepository;
+import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import com.petclinic.PetClinicBackend.util.SearchIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 🔎 Typeahead search over owners (name, email, phone), pets (name, breed) and visits (description), served by
+ * the embedded {@link SearchIndex}. ClinicStatsListener hands over every committed owner, pet and visit write,
+ * so the index follows the write paths without a query. Changes are flushed to segments under
+ * {@code search.index-dir} every {@code search.flush-interval}; a restart replays them instead of reindexing.
+ * <p>
+ * The reconcile, at startup and every {@code search.reconcile-interval}, indexes rows changed since the last one
+ * (writes from other instances, or made while this one was down) and drops documents whose row is gone. Only an
+ * empty or unreadable index is rebuilt from the database. The index is per instance: index-dir must not be shared.
+ */
+@Service
+public class SearchService {
+
+    public enum Type { OWNER, PET, VISIT }
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    private final OwnerRepository ownerRepository;
+    private final PetRepository petRepository;
+    private final VisitRepository visitRepository;
+    private final SearchIndex index;
+    private final long reconcileOverlapMillis;
+    private boolean opened; // guarded by this
+
+    public SearchService(OwnerRepository ownerRepository,
+                         PetRepository petRepository,
+                         VisitRepository visitRepository,
+                         @Value("${search.index-dir:}") String indexDir,
+                         @Value("${search.max-segments:8}") int maxSegments,
+                         @Value("${search.reconcile-overlap:300000}") long reconcileOverlapMillis) {
+        this.ownerRepository = ownerRepository;
+        this.petRepository = petRepository;
+        this.visitRepository = visitRepository;
+        this.index = new SearchIndex(indexDir.isBlank() ? null : Path.of(indexDir), maxSegments);
+        this.reconcileOverlapMillis = reconcileOverlapMillis;
+    }
+
+    // Best matches first; types null or empty = all
+    public List<SearchHit> search(String query, Set<Type> types, Integer limit) {
+        int max = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        Set<String> typeNames = types == null ? null
+                : types.stream().map(Type::name).collect(Collectors.toSet());
+        return index.search(query, typeNames, max).stream()
+                .map(hit -> {
+                    List<String> fields = hit.doc().fields();
+                    String detail = fields.stream().skip(1).filter(field -> !field.isBlank())
+                            .collect(Collectors.joining(" · "));
+                    return new SearchHit(Type.valueOf(hit.doc().type()), hit.doc().id(), fields.get(0), detail,
+                            hit.score());
+                })
+                .toList();
+    }
+
+    // --- Called by ClinicStatsListener once the write has committed ---
+
+    public void indexed(SearchIndex.Doc doc) {
+        index.put(doc);
+    }
+
+    public void removed(Type type, Long id) {
+        if (id != null) {
+            index.delete(type.name(), id);
+        }
+    }
+
+    // The document of an owner, pet or visit; null for any other entity
+    public static SearchIndex.Doc documentOf(Object entity) {
+        if (entity instanceof Owner owner && owner.getId() != null) {
+            return doc(Type.OWNER, owner.getId(), owner.getVersion(),
+                    owner.getName(), owner.getEmail(), owner.getPhone());
+        }
+        if (entity instanceof Pet pet && pet.getId() != null) {
+            return doc(Type.PET, pet.getId(), pet.getVersion(), pet.getName(), pet.getBreed());
+        }
+        if (entity instanceof Visit visit && visit.getId() != null) {
+            return doc(Type.VISIT, visit.getId(), visit.getVersion(), visit.getDescription(), visit.getVisitDate());
+        }
+        return null;
+    }
+
+    public static Type typeOf(Object entity) {
+        return entity instanceof Owner ? Type.OWNER : entity instanceof Pet ? Type.PET
+                : entity instanceof Visit ? Type.VISIT : null;
+    }
+
+    // 🔄 Catch up with the database: changed rows since the watermark, deleted rows, or everything if empty
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.reconcile-interval:300000}",
+            fixedDelayString = "${search.reconcile-interval:300000}")
+    public synchronized void reconcile() {
+        try {
+            long started = System.currentTimeMillis();
+            openOnce();
+            if (index.getWatermark() == 0L) {
+                index(Type.OWNER, ownerRepository::findSearchRows);
+                index(Type.PET, petRepository::findSearchRows);
+                index(Type.VISIT, visitRepository::findSearchRows);
+                logger.info("Search index built from the database: {} documents", index.size());
+            } else {
+                Instant since = Instant.ofEpochMilli(index.getWatermark() - reconcileOverlapMillis);
+                index(Type.OWNER, () -> ownerRepository.findSearchRowsModifiedSince(since));
+                index(Type.PET, () -> petRepository.findSearchRowsModifiedSince(since));
+                index(Type.VISIT, () -> visitRepository.findSearchRowsModifiedSince(since));
+                dropMissing(Type.OWNER, ownerRepository::findAllIds);
+                dropMissing(Type.PET, petRepository::findAllIds);
+                dropMissing(Type.VISIT, visitRepository::findAllIds);
+            }
+            index.setWatermark(started);
+        } catch (Exception e) {
+            logger.warn("Search index reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${search.flush-interval:10000}",
+            fixedDelayString = "${search.flush-interval:10000}")
+    public void flush() {
+        try {
+            index.flush();
+        } catch (IOException e) {
+            logger.warn("Search index flush failed, retrying at the next one: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public int segmentCount() {
+        return index.segmentCount();
+    }
+
+    private void openOnce() throws IOException {
+        if (opened) {
+            return;
+        }
+        try {
+            if (index.open()) {
+                logger.info("Search index loaded from disk: {} documents", index.size());
+            }
+        } catch (IOException e) {
+            logger.warn("Search index on disk is unreadable, rebuilding: {}", e.getMessage());
+            index.clear();
+        }
+        opened = true;
+    }
+
+    private void index(Type type, Supplier<List<Object[]>> rows) {
+        for (Object[] row : rows.get()) {
+            index.put(doc(type, (Long) row[0], (Long) row[1], Arrays.copyOfRange(row, 2, row.length)));
+        }
+    }
+
+    // The index's ids are read before the table's, so a row inserted in between is never taken for a deleted one
+    private void dropMissing(Type type, Supplier<List<Long>> tableIds) {
+        Set<Long> indexed = index.ids(type.name());
+        indexed.removeAll(new HashSet<>(tableIds.get()));
+        indexed.forEach(id -> index.delete(type.name(), id));
+    }
+
+    private static SearchIndex.Doc doc(Type type, Long id, Long version, Object... fields) {
+        List<String> values = new ArrayList<>(fields.length);
+        for (Object field : fields) {
+            values.add(field != null ? field.toString() : "");
+        }
+        return new SearchIndex.Doc(type.name(), id, version != null ? version : 0L, values);
+    }
+}
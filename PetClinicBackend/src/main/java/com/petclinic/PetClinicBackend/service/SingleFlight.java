@@ -0,0 +1,108 @@
+package com.petclinic.PetClinicBackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 🚦 Request coalescing for hot reads. While a load for a (group, key) is running, identical calls wait for it
+ * and share its result or exception instead of querying again. Nothing is kept afterwards: the first call after
+ * a load completes starts a new one. A caller that joins a running load may get data read just before a
+ * concurrent commit, like a call that started slightly earlier. Results are shared between threads, so loaders
+ * must return immutable values.
+ * <p>
+ * Metrics, tagged by group: {@code singleflight.loads}, {@code singleflight.shared} (calls answered by another
+ * call's load) and {@code singleflight.shared.per.load} (calls each load absorbed).
+ */
+@Component
+public class SingleFlight {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<FlightKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, GroupMeters> meters = new ConcurrentHashMap<>();
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Parameterless reads: the group is the key
+    public <V> V load(String group, Supplier<V> loader) {
+        return load(group, group, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <V> V load(String group, Object key, Supplier<V> loader) {
+        GroupMeters groupMeters = meters.computeIfAbsent(group, this::register);
+        FlightKey flightKey = new FlightKey(group, key);
+        Flight flight = new Flight();
+        Flight running = inFlight.putIfAbsent(flightKey, flight);
+        if (running != null) {
+            running.joined.incrementAndGet();
+            groupMeters.shared.increment();
+            return (V) await(running.result);
+        }
+
+        groupMeters.loads.increment();
+        try {
+            V value = loader.get();
+            flight.result.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+            groupMeters.sharedPerLoad.record(flight.joined.get());
+        }
+    }
+
+    private GroupMeters register(String group) {
+        return new GroupMeters(
+                Counter.builder("singleflight.loads")
+                        .tag("group", group)
+                        .description("Loads run by coalesced reads")
+                        .register(meterRegistry),
+                Counter.builder("singleflight.shared")
+                        .tag("group", group)
+                        .description("Calls that shared a running load instead of starting one")
+                        .register(meterRegistry),
+                DistributionSummary.builder("singleflight.shared.per.load")
+                        .tag("group", group)
+                        .description("Calls absorbed by one load")
+                        .register(meterRegistry));
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            // The leader's own exception, so joined callers fail exactly like the leader
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private record FlightKey(String group, Object key) {
+    }
+
+    private record GroupMeters(Counter loads, Counter shared, DistributionSummary sharedPerLoad) {
+    }
+
+    private static class Flight {
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final AtomicInteger joined = new AtomicInteger();
+    }
+}
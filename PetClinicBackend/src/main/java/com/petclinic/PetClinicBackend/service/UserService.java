@@ -6,8 +6,11 @@ import com.petclinic.PetClinicBackend.model.User;
 import com.petclinic.PetClinicBackend.repository.OwnerRepository;
 import com.petclinic.PetClinicBackend.repository.UserRepository;
 import com.petclinic.PetClinicBackend.config.SecurityUtil;
+import com.petclinic.PetClinicBackend.security.AuthorizationContext;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 public class UserService {
 
@@ -27,7 +30,31 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
     }
 
+    // ✅ Owner id of the caller: from the JWT context, DB only for tokens issued without the claim
+    public Long getCurrentOwnerId() {
+        Optional<AuthorizationContext> context = SecurityUtil.getAuthorizationContext();
+        if (context.isPresent() && context.get().getOwnerId() != null) {
+            return context.get().getOwnerId();
+        }
+
+        String email = SecurityUtil.getCurrentUserLogin()
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", "unknown"));
+        return ownerRepository.findIdByUserEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("Owner", "email", email));
+    }
+
+    public boolean isCurrentUserAdmin() {
+        return SecurityUtil.getAuthorizationContext()
+                .map(AuthorizationContext::isAdmin)
+                .orElseGet(() -> SecurityUtil.hasRole("ADMIN") || SecurityUtil.hasRole("SUPERADMIN"));
+    }
+
     public boolean isCurrentUserOwnerOf(Long ownerId, String username) {
+        Optional<AuthorizationContext> context = currentContextFor(username);
+        if (context.isPresent() && context.get().getOwnerId() != null) {
+            return context.get().isOwner(ownerId);
+        }
+
         Owner owner = ownerRepository.findByUser_Email(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Owner", "username", username));
 
@@ -35,11 +62,21 @@ public class UserService {
     }
 
     public boolean isAdmin(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        Optional<AuthorizationContext> context = currentContextFor(username);
+        if (context.isPresent()) {
+            return context.get().isAdmin();
+        }
+
+        User user = userRepository.findByEmail(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", username));
 
         return user.getRoles().stream()
                 .anyMatch(role -> role.getName().equalsIgnoreCase("ROLE_ADMIN") ||
                         role.getName().equalsIgnoreCase("ROLE_SUPERADMIN"));
     }
+
+    private Optional<AuthorizationContext> currentContextFor(String username) {
+        return SecurityUtil.getAuthorizationContext()
+                .filter(context -> context.getEmail().equals(username));
+    }
 }
@@ -0,0 +1,163 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petclinic.PetClinicBackend.dto.VisitView;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.repository.VetRepository;
+import com.petclinic.PetClinicBackend.util.ResourceVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 🩺 Copy-on-write snapshot of the vet directory. Reads dereference one volatile field and return JSON bytes
+ * serialized at build time together with their ETag (no lock, no query, no serialization). The snapshot is
+ * rebuilt from the database after a vet change commits; rebuilds are serialized so a newer snapshot is never
+ * replaced by an older one. Callers must treat the returned arrays as read-only.
+ */
+@Component
+public class VetDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(VetDirectory.class);
+    private static final Entry EMPTY_LIST = new Entry(new byte[] {'[', ']'}, ResourceVersion.of("vets", List.of()));
+
+    private final VetRepository vetRepository;
+    private final ObjectMapper objectMapper;
+    private volatile Snapshot snapshot;
+
+    public VetDirectory(VetRepository vetRepository, ObjectMapper objectMapper) {
+        this.vetRepository = vetRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // JSON array of all vets, ordered by id
+    public Entry all() {
+        return current().all;
+    }
+
+    // JSON object for one vet, or null if there is no such vet
+    public Entry vet(Long id) {
+        return current().byId.get(id);
+    }
+
+    // JSON array of the vets with this specialization (case-insensitive); [] if none
+    public Entry bySpecialization(String specialization) {
+        Entry entry = current().bySpecialization.get(specializationKey(specialization));
+        return entry != null ? entry : EMPTY_LIST;
+    }
+
+    // Vets with this specialization (case-insensitive), ordered by id; used by the free-slot search
+    public List<VisitView.VetSummary> vetsWithSpecialization(String specialization) {
+        return current().vetsBySpecialization.getOrDefault(specializationKey(specialization), List.of());
+    }
+
+    public int size() {
+        return current().size;
+    }
+
+    // Called from VetService writes: rebuild once the surrounding transaction commits (or now, if there is none)
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    try {
+                        refresh();
+                    } catch (RuntimeException e) {
+                        // The write is already committed: keep serving the old snapshot until the next refresh
+                        logger.warn("Vet directory refresh failed after commit", e);
+                    }
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    // Also runs periodically, to pick up vet changes committed by other application instances
+    @Scheduled(initialDelayString = "${vets.directory.refresh-interval:300000}",
+            fixedDelayString = "${vets.directory.refresh-interval:300000}")
+    public synchronized void refresh() {
+        snapshot = build(vetRepository.findAll());
+        logger.debug("Vet directory rebuilt with {} vets", snapshot.size);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot build(List<Vet> vets) {
+        List<Vet> ordered = new ArrayList<>(vets);
+        ordered.sort(Comparator.comparing(Vet::getId));
+
+        Map<Long, Entry> byId = new HashMap<>();
+        Map<String, List<Vet>> grouped = new LinkedHashMap<>();
+        for (Vet vet : ordered) {
+            byId.put(vet.getId(), new Entry(toJson(vet), ResourceVersion.of("vet",
+                    List.<Object[]>of(new Object[] {vet.getId(), vet.getVersion(), vet.getLastModified()}))));
+            if (vet.getSpecialization() != null && !vet.getSpecialization().isBlank()) {
+                grouped.computeIfAbsent(specializationKey(vet.getSpecialization()), key -> new ArrayList<>()).add(vet);
+            }
+        }
+        Map<String, Entry> bySpecialization = new HashMap<>();
+        Map<String, List<VisitView.VetSummary>> vetsBySpecialization = new HashMap<>();
+        grouped.forEach((key, group) -> {
+            bySpecialization.put(key, listEntry(group));
+            vetsBySpecialization.put(key, group.stream()
+                    .map(vet -> new VisitView.VetSummary(vet.getId(), vet.getName(), vet.getSpecialization()))
+                    .toList());
+        });
+
+        return new Snapshot(listEntry(ordered), Map.copyOf(byId), Map.copyOf(bySpecialization),
+                Map.copyOf(vetsBySpecialization), ordered.size());
+    }
+
+    // Lists are validated by ETag only: ids and versions of the members, so removals change it too
+    private Entry listEntry(List<Vet> vets) {
+        List<Object[]> versions = vets.stream()
+                .map(vet -> new Object[] {vet.getId(), vet.getVersion()})
+                .toList();
+        return new Entry(toJson(vets), ResourceVersion.of("vets", versions));
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize vet directory", e);
+        }
+    }
+
+    private static String specializationKey(String specialization) {
+        return specialization == null ? "" : specialization.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Pre-serialized JSON and its validators; json must not be modified
+    public record Entry(byte[] json, ResourceVersion version) {
+    }
+
+    private record Snapshot(Entry all, Map<Long, Entry> byId, Map<String, Entry> bySpecialization,
+                            Map<String, List<VisitView.VetSummary>> vetsBySpecialization, int size) {
+    }
+}
@@ -0,0 +1,144 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ⚖️ Upcoming-visit load per vet and day, used to auto-assign new visits to the least-loaded vet. A visit counts
+ * while it is UPCOMING: creating one adds to its vet-day, completing, cancelling, deleting or moving it takes it
+ * off. ClinicStatsListener reports these changes once their transaction commits, from every write path. Each
+ * count is an atomic integer, so concurrent updates never lose a change. The loads are a balancing hint, not a
+ * constraint: they are rebuilt from the database with the booking resync, which corrects drift and picks up
+ * visits saved on other instances.
+ * <p>
+ * A vet picked for a visit that is still being saved counts too, as a hold on its vet-day: picks are serialized,
+ * so concurrent auto-assignments see each other and spread out. The hold lasts until the picking transaction
+ * completes: on commit the saved visit counts instead, on rollback nothing does.
+ */
+@Component
+public class VetLoadBalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(VetLoadBalancer.class);
+
+    private final VisitRepository visitRepository;
+    private final TransactionTemplate committedReads;
+    private final Map<BookingEngine.VetDay, AtomicInteger> loads = new ConcurrentHashMap<>();
+    private final Map<BookingEngine.VetDay, AtomicInteger> holds = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public VetLoadBalancer(VisitRepository visitRepository, PlatformTransactionManager transactionManager) {
+        this.visitRepository = visitRepository;
+        // Own transaction: a load triggered mid-save must not count the save's uncommitted visit
+        this.committedReads = new TransactionTemplate(transactionManager);
+        this.committedReads.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.committedReads.setReadOnly(true);
+    }
+
+    // Committed upcoming visits plus the holds of picks still being saved
+    public int load(Long vetId, LocalDate date) {
+        ensureLoaded();
+        BookingEngine.VetDay day = new BookingEngine.VetDay(vetId, date);
+        AtomicInteger load = loads.get(day);
+        AtomicInteger held = holds.get(day);
+        return Math.max(0, load != null ? load.get() : 0) + Math.max(0, held != null ? held.get() : 0);
+    }
+
+    // Least-loaded candidate, held for the current transaction; outside one, nothing is held
+    public synchronized Optional<Long> pickLeastLoaded(List<Long> vetIds, LocalDate date) {
+        Optional<Long> picked = leastLoaded(vetIds, date);
+        if (picked.isPresent() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            BookingEngine.VetDay day = new BookingEngine.VetDay(picked.get(), date);
+            adjust(holds, day, 1);
+            // Runs after ClinicStatsListener's afterCommit has counted the saved visit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    adjust(holds, day, -1);
+                }
+            });
+        }
+        return picked;
+    }
+
+    // Least-loaded of the candidates on that day; ties go to the first candidate
+    public Optional<Long> leastLoaded(List<Long> vetIds, LocalDate date) {
+        Long best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (Long vetId : vetIds) {
+            int load = load(vetId, date);
+            if (load < bestLoad) {
+                best = vetId;
+                bestLoad = load;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    // The vet-day an UPCOMING visit counts against; null for other statuses
+    public static BookingEngine.VetDay countedDay(Long vetId, LocalDate date, VisitStatus status) {
+        return status == VisitStatus.UPCOMING && vetId != null && date != null
+                ? new BookingEngine.VetDay(vetId, date) : null;
+    }
+
+    // A committed visit write: the visit stopped counting on before and counts on after (null = neither)
+    public void visitMoved(BookingEngine.VetDay before, BookingEngine.VetDay after) {
+        if (!loaded) {
+            return; // the first load reads the committed result
+        }
+        adjust(loads, before, -1);
+        adjust(loads, after, 1);
+    }
+
+    // 🔄 Recount upcoming visits from today on; past days are dropped
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${booking.resync-interval:300000}",
+            fixedDelayString = "${booking.resync-interval:300000}")
+    public synchronized void resync() {
+        try {
+            LocalDate today = LocalDate.now();
+            List<Object[]> rows = committedReads.execute(
+                    status -> visitRepository.countByVetAndDateFrom(today, VisitStatus.UPCOMING));
+            Map<BookingEngine.VetDay, Integer> counts = new HashMap<>();
+            for (Object[] row : rows) {
+                counts.put(new BookingEngine.VetDay((Long) row[0], (LocalDate) row[1]), ((Long) row[2]).intValue());
+            }
+            loads.keySet().removeIf(day -> !counts.containsKey(day));
+            counts.forEach((day, count) -> loads.computeIfAbsent(day, key -> new AtomicInteger()).set(count));
+            loaded = true;
+            logger.debug("Vet loads resynced: {} vet-days", loads.size());
+        } catch (Exception e) {
+            logger.warn("Vet load resync failed: {}", e.getMessage());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            resync();
+        }
+    }
+
+    private static void adjust(Map<BookingEngine.VetDay, AtomicInteger> counts, BookingEngine.VetDay day, int delta) {
+        if (day != null) {
+            counts.computeIfAbsent(day, key -> new AtomicInteger()).addAndGet(delta);
+        }
+    }
+}
@@ -1,35 +1,132 @@
 package com.petclinic.PetClinicBackend.service;
 
+import com.petclinic.PetClinicBackend.dto.AvailableSlot;
+import com.petclinic.PetClinicBackend.dto.CursorPage;
+import com.petclinic.PetClinicBackend.dto.VisitView;
 import com.petclinic.PetClinicBackend.exception.ResourceNotFoundException;
+import com.petclinic.PetClinicBackend.exception.SlotUnavailableException;
 import com.petclinic.PetClinicBackend.model.Vet;
 import com.petclinic.PetClinicBackend.repository.VetRepository;
+import com.petclinic.PetClinicBackend.util.KeysetPager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class VetService {
 
     private static final Logger logger = LoggerFactory.getLogger(VetService.class);
     private final VetRepository vetRepository;
+    private final VetDirectory vetDirectory;
+    private final OwnerHomeCache homeCache;
+    private final BookingEngine bookingEngine;
+    private final VetLoadBalancer loadBalancer;
+    private final int maxSearchDays;
+    private final int maxSearchResults;
 
-    public VetService(VetRepository vetRepository) {
+    public VetService(VetRepository vetRepository, VetDirectory vetDirectory, OwnerHomeCache homeCache,
+                      BookingEngine bookingEngine, VetLoadBalancer loadBalancer,
+                      @Value("${booking.search.max-days:366}") int maxSearchDays,
+                      @Value("${booking.search.max-results:50}") int maxSearchResults) {
         this.vetRepository = vetRepository;
+        this.vetDirectory = vetDirectory;
+        this.homeCache = homeCache;
+        this.bookingEngine = bookingEngine;
+        this.loadBalancer = loadBalancer;
+        this.maxSearchDays = maxSearchDays;
+        this.maxSearchResults = maxSearchResults;
     }
 
+    @Transactional
     public Vet addVet(Vet vet) {
+        vet.setId(null); // always a new row, never a merge over an existing vet
         Vet savedVet = vetRepository.save(vet);
+        vetDirectory.refreshAfterCommit();
         logger.info("✅ Vet saved: {}", savedVet);
         return savedVet;
     }
 
-    public List<Vet> getAllVets() {
-        List<Vet> vets = vetRepository.findAll();
-        logger.info("📋 Total vets fetched: {}", vets.size());
-        return vets;
+    // 🩺 Read path for vet lists/lookups: pre-serialized JSON and ETag from the in-memory snapshot
+    public VetDirectory.Entry getAllVetsSnapshot() {
+        return vetDirectory.all();
+    }
+
+    public VetDirectory.Entry getVetsBySpecializationSnapshot(String specialization) {
+        return vetDirectory.bySpecialization(specialization);
+    }
+
+    public Optional<VetDirectory.Entry> getVetSnapshotById(Long id) {
+        return Optional.ofNullable(vetDirectory.vet(id));
+    }
+
+    // 🔎 Earliest free slots across the vets of a specialization: vets from the directory snapshot, free time from
+    // the BookingEngine bitmaps, so no query runs. from defaults to today, to to from, duration to the default.
+    public List<AvailableSlot> findAvailableSlots(String specialization, LocalDate from, LocalDate to,
+                                                  Integer durationMinutes, Integer limit) {
+        if (specialization == null || specialization.isBlank()) {
+            throw new IllegalArgumentException("'specialization' is required");
+        }
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start;
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxSearchDays) {
+            throw new IllegalArgumentException("Search window must not exceed " + maxSearchDays + " days");
+        }
+        int duration = durationMinutes != null ? durationMinutes : bookingEngine.getDefaultDurationMinutes();
+        int results = limit == null ? 5 : Math.max(1, Math.min(limit, maxSearchResults));
+
+        List<VisitView.VetSummary> vets = vetDirectory.vetsWithSpecialization(specialization);
+        Map<Long, String> names = new HashMap<>();
+        vets.forEach(vet -> names.put(vet.getId(), vet.getName()));
+        return bookingEngine.findFreeSlots(vets.stream().map(VisitView.VetSummary::getId).toList(),
+                        start, end, duration, results).stream()
+                .map(slot -> new AvailableSlot(slot.vetId(), names.get(slot.vetId()), slot.date(),
+                        slot.startTime(), duration))
+                .toList();
+    }
+
+    // ⚖️ Auto-assignment for POST /api/visits without a vetId: the least-loaded vet of the specialization that day,
+    // among those free at the start time when one is given. A concurrent booking can still take the slot (→ 409).
+    // Within a transaction, the pick counts on the vet's load until it completes (see VetLoadBalancer).
+    public Long assignVet(String specialization, LocalDate date, LocalTime startTime, Integer durationMinutes) {
+        if (specialization == null || specialization.isBlank()) {
+            throw new IllegalArgumentException("Either 'vetId' or 'specialization' is required");
+        }
+        if (date == null) {
+            throw new IllegalArgumentException("'date' is required");
+        }
+        List<VisitView.VetSummary> vets = vetDirectory.vetsWithSpecialization(specialization);
+        if (vets.isEmpty()) {
+            throw new ResourceNotFoundException("Vet", "specialization", specialization);
+        }
+        long wanted = startTime == null ? 0L : bookingEngine.slotMask(startTime,
+                durationMinutes != null ? durationMinutes : bookingEngine.getDefaultDurationMinutes());
+        List<Long> free = vets.stream()
+                .map(VisitView.VetSummary::getId)
+                .filter(vetId -> (bookingEngine.bookedMask(vetId, date) & wanted) == 0L)
+                .toList();
+        return loadBalancer.pickLeastLoaded(free, date).orElseThrow(() -> new SlotUnavailableException(
+                String.format("No %s vet is available on %s at %s", specialization, date, startTime)));
+    }
+
+    // 📄 Keyset page of vets
+    public CursorPage<Vet> getVetPage(String cursor, Integer size, String sort, boolean withTotal) {
+        Sort order = KeysetPager.parseSort(sort, Set.of("id", "name", "specialization"), Sort.by("id"));
+        return KeysetPager.scroll(vetRepository, null, order, cursor, size, withTotal, vet -> vet);
     }
 
     public Optional<Vet> getVetById(Long id) {
@@ -42,6 +139,7 @@ public class VetService {
         return vet;
     }
 
+    @Transactional
     public Vet updateVet(Long id, Vet updatedVet) {
         return vetRepository.findById(id).map(existingVet -> {
             existingVet.setName(updatedVet.getName());
@@ -49,6 +147,8 @@ public class VetService {
             existingVet.setPhone(updatedVet.getPhone());
             existingVet.setSpecialization(updatedVet.getSpecialization());
             Vet saved = vetRepository.save(existingVet);
+            vetDirectory.refreshAfterCommit();
+            homeCache.evictAllAfterCommit(); // cached visit lists embed the vet
             logger.info("✅ Vet updated with ID {}: {}", id, saved);
             return saved;
         }).orElseThrow(() -> {
@@ -57,12 +157,15 @@ public class VetService {
         });
     }
 
+    @Transactional
     public void deleteVet(Long id) {
         if (!vetRepository.existsById(id)) {
             logger.error("❌ Cannot delete. Vet not found with ID {}", id);
             throw new ResourceNotFoundException("Vet", "id", id);
         }
         vetRepository.deleteById(id);
+        vetDirectory.refreshAfterCommit();
+        homeCache.evictAllAfterCommit();
         logger.warn("🗑️ Vet deleted with ID {}", id);
     }
 }
@@ -0,0 +1,140 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petclinic.PetClinicBackend.dto.VisitView;
+import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes visits to an output stream while they are read from the database: the query result is a JDBC
+ * cursor ({@link VisitRepository#streamViews}), every row is written as soon as it is mapped, and the
+ * persistence context is cleared every fetch-size rows, so heap use does not grow with the export size.
+ */
+@Service
+public class VisitExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final String CSV_HEADER =
+            "id,visitDate,status,description,petId,petName,petBreed,ownerId,vetId,vetName,vetSpecialization,"
+                    + "startTime,durationMinutes";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final VisitRepository visitRepository;
+    private final ObjectMapper objectMapper;
+
+    public VisitExportService(VisitRepository visitRepository, ObjectMapper objectMapper) {
+        this.visitRepository = visitRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Checked before the response is committed, so a bad range still gets a 400
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+    }
+
+    // 📤 Returns the number of visits written; the caller owns (and closes) the output stream
+    @Transactional(readOnly = true)
+    public long export(LocalDate from, LocalDate to, Long vetId, Format format, OutputStream out) throws IOException {
+        validateRange(from, to);
+        try (Stream<VisitView> visits = visitRepository.streamViews(from, to, vetId)) {
+            return format == Format.CSV ? writeCsv(visits.iterator(), out) : writeNdjson(visits.iterator(), out);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long writeNdjson(Iterator<VisitView> visits, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (visits.hasNext()) {
+                objectMapper.writeValue(generator, visits.next());
+                generator.writeRaw('\n');
+                if (++count % VisitRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<VisitView> visits, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (visits.hasNext()) {
+            VisitView visit = visits.next();
+            VisitView.PetSummary pet = visit.getPet();
+            VisitView.VetSummary vet = visit.getVet();
+            writeCsvRow(writer, visit.getId(), visit.getVisitDate(), visit.getStatus(), visit.getDescription(),
+                    pet.getId(), pet.getName(), pet.getBreed(), pet.getOwnerId(),
+                    vet.getId(), vet.getName(), vet.getSpecialization(),
+                    visit.getStartTime(), visit.getDurationMinutes());
+            if (++count % VisitRepository.EXPORT_FETCH_SIZE == 0) {
+                entityManager.clear();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvField(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting, readable back by CsvReader
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
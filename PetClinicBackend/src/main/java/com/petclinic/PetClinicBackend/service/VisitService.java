@@ -1,16 +1,39 @@
 package com.petclinic.PetClinicBackend.service;
 
+import com.petclinic.PetClinicBackend.config.SecurityUtil;
+import com.petclinic.PetClinicBackend.dto.CursorPage;
+import com.petclinic.PetClinicBackend.dto.VisitView;
 import com.petclinic.PetClinicBackend.exception.ResourceNotFoundException;
 import com.petclinic.PetClinicBackend.model.Pet;
 import com.petclinic.PetClinicBackend.model.User;
 import com.petclinic.PetClinicBackend.model.Vet;
 import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
 import com.petclinic.PetClinicBackend.repository.*;
+import com.petclinic.PetClinicBackend.security.AuthorizationContext;
+import com.petclinic.PetClinicBackend.security.OwnerScope;
+import com.petclinic.PetClinicBackend.util.KeysetPager;
+import com.petclinic.PetClinicBackend.util.ResourceVersion;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class VisitService {
@@ -20,63 +43,280 @@ public class VisitService {
     private final VetRepository vetRepository;
     private final UserRepository userRepository;
     private final OwnerRepository ownerRepository;
+    private final OwnerScope ownerScope;
+    private final OwnerHomeCache homeCache;
+    private final SingleFlight singleFlight;
+    private final BookingEngine bookingEngine;
+    private final VetService vetService;
+    private final ClinicStatsService statsService;
+    private final int searchCountThreshold;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     public VisitService(
             VisitRepository visitRepository,
             PetRepository petRepository,
             VetRepository vetRepository,
             UserRepository userRepository,
-            OwnerRepository ownerRepository
+            OwnerRepository ownerRepository,
+            OwnerScope ownerScope,
+            OwnerHomeCache homeCache,
+            SingleFlight singleFlight,
+            BookingEngine bookingEngine,
+            VetService vetService,
+            ClinicStatsService statsService,
+            @Value("${visits.search.count-threshold:1000}") int searchCountThreshold
     ) {
         this.visitRepository = visitRepository;
         this.petRepository = petRepository;
         this.vetRepository = vetRepository;
         this.userRepository = userRepository;
         this.ownerRepository = ownerRepository;
+        this.ownerScope = ownerScope;
+        this.homeCache = homeCache;
+        this.singleFlight = singleFlight;
+        this.bookingEngine = bookingEngine;
+        this.vetService = vetService;
+        this.statsService = statsService;
+        this.searchCountThreshold = searchCountThreshold;
     }
 
-    // ✅ Save or update visit
+    // ✅ Save or update visit; pet and vet are loaded in the same transaction, so the result is safe to map after commit.
+    // 🗓️ Timed visits take their vet slots in the same transaction: taken slots → 409, nothing saved
+    @Transactional
     public Visit saveVisit(Visit visit) {
         Long petId = visit.getPet().getId();
         Long vetId = visit.getVet().getId();
 
-        Pet pet = petRepository.findById(petId)
-                .orElseThrow(() -> new ResourceNotFoundException("Pet", "id", petId));
+        Pet pet = getPetById(petId);
         Vet vet = vetRepository.findById(vetId)
                 .orElseThrow(() -> new ResourceNotFoundException("Vet", "id", vetId));
 
         visit.setPet(pet);
         visit.setVet(vet);
+        if (visit.getStartTime() != null && visit.getDurationMinutes() == null) {
+            visit.setDurationMinutes(bookingEngine.getDefaultDurationMinutes());
+        }
+        boolean isNew = visit.getId() == null;
+
+        // An update may move the visit to another pet: both owners' cached visit lists are outdated
+        Long previousOwnerId = visit.getId() != null ? visitRepository.findOwnerIdById(visit.getId()).orElse(null) : null;
+        homeCache.evictAfterCommit(pet.getOwner().getId(), previousOwnerId);
+        Visit saved = visitRepository.save(visit);
+        bookingEngine.book(saved, isNew);
+        return saved;
+    }
 
-        return visitRepository.save(visit);
+    // ⚖️ POST /api/visits without a vetId: the vet is assigned in the saving transaction, so its load hold ends
+    // when the visit is committed (and counts instead) or rolled back
+    @Transactional
+    public Visit saveVisitWithAssignedVet(Visit visit, String specialization) {
+        Long vetId = vetService.assignVet(specialization, visit.getVisitDate(), visit.getStartTime(),
+                visit.getDurationMinutes());
+        visit.setVet(getVetById(vetId));
+        return saveVisit(visit);
     }
 
     public List<Visit> getAllVisits() {
         return visitRepository.findAll();
     }
 
-    public List<Visit> getVisitsByPetId(Long petId) {
-        return visitRepository.findByPetId(petId);
+    // 🚦 Front-desk sessions load this together: concurrent calls share one running query
+    public List<VisitView> getAllVisitViews() {
+        return singleFlight.load("visits.all", () -> List.copyOf(visitRepository.findAllViews()));
+    }
+
+    // 📄 Keyset page of all visits, newest first by default; pet and vet fetch-joined for the view
+    public CursorPage<VisitView> getVisitPage(String cursor, Integer size, String sort, boolean withTotal) {
+        return KeysetPager.scroll(visitRepository, withPetAndVet(), visitSort(sort), cursor, size, withTotal,
+                VisitView::from);
+    }
+
+    // 🔎 GET /api/visits/search filters; null = any, the date range is inclusive
+    public record SearchFilter(VisitStatus status, Long vetId, Long ownerId, Long petId,
+                               LocalDate from, LocalDate to) {
+    }
+
+    // 🔎 Keyset page of the visits matching every filter; all filters are applied in SQL.
+    // The total counts at most count-threshold matches exactly. Beyond that, a status/vet/date total is estimated
+    // from the dashboard counters instead of a COUNT(*) over every match; owner and pet totals stay exact, their
+    // index range being small.
+    @Transactional(readOnly = true)
+    public CursorPage<VisitView> searchVisits(SearchFilter filter, String cursor, Integer size, String sort,
+                                              boolean withTotal) {
+        if (filter.from() != null && filter.to() != null && filter.from().isAfter(filter.to())) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        Specification<Visit> matching = matching(filter);
+        CursorPage<VisitView> page = KeysetPager.scroll(visitRepository, withPetAndVet().and(matching),
+                visitSort(sort), cursor, size, false, VisitView::from);
+        if (!withTotal) {
+            return page;
+        }
+        if (cursor == null && page.getNextCursor() == null) {
+            page.setTotal((long) page.getItems().size()); // a single page holds every match
+            return page;
+        }
+        long counted = countUpTo(matching, searchCountThreshold + 1);
+        if (counted <= searchCountThreshold) {
+            page.setTotal(counted);
+        } else if (filter.ownerId() == null && filter.petId() == null) {
+            long estimate = statsService.estimateVisits(filter.status(), filter.vetId(), filter.from(), filter.to());
+            page.setTotal(Math.max(counted, estimate));
+            page.setTotalEstimated(true);
+        } else {
+            page.setTotal(visitRepository.count(matching));
+        }
+        return page;
+    }
+
+    private static Sort visitSort(String sort) {
+        return KeysetPager.parseSort(sort, Set.of("id", "visitDate", "status"),
+                Sort.by(Sort.Direction.DESC, "visitDate"));
+    }
+
+    private static Specification<Visit> withPetAndVet() {
+        return (root, query, cb) -> {
+            if (query != null && !Long.class.equals(query.getResultType())) {
+                root.fetch("pet", JoinType.INNER);
+                root.fetch("vet", JoinType.INNER);
+            }
+            return null;
+        };
+    }
+
+    // Plain column predicates on visit (pet_id, vet_id, status, visit_date), so V2/V6 indexes serve seek and count;
+    // the owner filter is a pet id subquery rather than a join
+    private static Specification<Visit> matching(SearchFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.status() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.status()));
+            }
+            if (filter.vetId() != null) {
+                predicates.add(cb.equal(root.get("vet").get("id"), filter.vetId()));
+            }
+            if (filter.petId() != null) {
+                predicates.add(cb.equal(root.get("pet").get("id"), filter.petId()));
+            }
+            if (filter.ownerId() != null) {
+                Subquery<Long> ownerPets = query.subquery(Long.class);
+                Root<Pet> pet = ownerPets.from(Pet.class);
+                ownerPets.select(pet.get("id")).where(cb.equal(pet.get("owner").get("id"), filter.ownerId()));
+                predicates.add(root.get("pet").get("id").in(ownerPets));
+            }
+            if (filter.from() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("visitDate"), filter.from()));
+            }
+            if (filter.to() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("visitDate"), filter.to()));
+            }
+            return predicates.isEmpty() ? null : cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Matching ids, read no further than limit: bounded by the index range it walks, unlike COUNT(*)
+    private long countUpTo(Specification<Visit> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Visit> root = query.from(Visit.class);
+        query.select(root.get("id"));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList().size();
+    }
+
+    // 🔐 Non-admins only see visits of their own pets (Hibernate ownerScope filter)
+    @Transactional(readOnly = true)
+    public List<VisitView> getVisitViewsByPetId(Long petId) {
+        ownerScope.apply();
+        return visitRepository.findViewsByPetId(petId);
     }
 
     public Optional<Visit> getVisitById(Long id) {
-        return visitRepository.findById(id);
+        return ownerScope.restrictedOwnerId()
+                .map(ownerId -> visitRepository.findByIdAndPet_Owner_Id(id, ownerId))
+                .orElseGet(() -> visitRepository.findById(id));
+    }
+
+    public Optional<VisitView> getVisitViewById(Long id) {
+        return ownerScope.restrictedOwnerId()
+                .map(ownerId -> visitRepository.findViewByIdAndOwnerId(id, ownerId))
+                .orElseGet(() -> visitRepository.findViewById(id));
+    }
+
+    // 🏷️ ETag / Last-Modified source for GET /api/visits/{id}, scoped like getVisitViewById
+    public Optional<ResourceVersion> getVisitVersion(Long id) {
+        List<Object[]> rows = ownerScope.restrictedOwnerId()
+                .map(ownerId -> visitRepository.findVersionByIdAndOwnerId(id, ownerId))
+                .orElseGet(() -> visitRepository.findVersionById(id));
+        return rows.isEmpty() ? Optional.empty() : Optional.of(ResourceVersion.of("visit", rows));
     }
 
+    @Transactional
     public void deleteVisit(Long id) {
         if (!visitRepository.existsById(id)) {
             throw new ResourceNotFoundException("Visit", "id", id);
         }
+        visitRepository.findOwnerIdById(id).ifPresent(homeCache::evictAfterCommit);
+        bookingEngine.unbook(id);
         visitRepository.deleteById(id);
     }
 
-    // ✅ Simplified using derived query method
+    // ✅ Owner id comes from the request's AuthorizationContext: visit ⋈ pet instead of a four-table join
     public List<Visit> getVisitsForCurrentUser(String email) {
+        Long ownerId = contextOwnerId(email);
+        if (ownerId != null) {
+            return visitRepository.findByPet_Owner_Id(ownerId);
+        }
         return visitRepository.findAllByPet_Owner_User_Email(email);
     }
 
+    public List<VisitView> getVisitViewsForCurrentUser(String email) {
+        Long ownerId = contextOwnerId(email);
+        if (ownerId != null) {
+            return visitRepository.findViewsByOwnerId(ownerId);
+        }
+        return visitRepository.findViewsByOwnerEmail(email);
+    }
+
+    public ResourceVersion getVisitsVersionForCurrentUser(String email) {
+        Long ownerId = contextOwnerId(email);
+        return ResourceVersion.of("visits", ownerId != null
+                ? visitRepository.findVersionsByOwnerId(ownerId)
+                : visitRepository.findVersionsByOwnerEmail(email));
+    }
+
+    // 🏠 GET /api/visits/mine: views and ETag from the per-owner cache; a login without an owner is not cached
+    public OwnerHomeCache.Entry<List<VisitView>> getMyVisitsEntry(String email) {
+        Long ownerId = contextOwnerId(email);
+        if (ownerId == null) {
+            ownerId = ownerRepository.findIdByUserEmail(email).orElse(null);
+        }
+        if (ownerId == null) {
+            return new OwnerHomeCache.Entry<>(getVisitViewsForCurrentUser(email), getVisitsVersionForCurrentUser(email));
+        }
+        Long id = ownerId;
+        return homeCache.get(id, OwnerHomeCache.Resource.VISITS, () -> new OwnerHomeCache.Entry<>(
+                List.copyOf(visitRepository.findViewsByOwnerId(id)),
+                ResourceVersion.of("visits", visitRepository.findVersionsByOwnerId(id))));
+    }
+
+    private static Long contextOwnerId(String email) {
+        return SecurityUtil.getAuthorizationContext()
+                .filter(context -> context.getEmail().equals(email))
+                .map(AuthorizationContext::getOwnerId)
+                .orElse(null);
+    }
+
+    // 🔐 Users can only book for their own pets; admins for any
     public Pet getPetById(Long id) {
-        return petRepository.findById(id)
+        Optional<Long> restrictedTo = ownerScope.restrictedOwnerId();
+        return petRepository.findById(id) // by id, so the L2 cache answers
+                .filter(pet -> restrictedTo.isEmpty() || restrictedTo.get().equals(pet.getOwner().getId()))
                 .orElseThrow(() -> new ResourceNotFoundException("Pet", "id", id));
     }
 
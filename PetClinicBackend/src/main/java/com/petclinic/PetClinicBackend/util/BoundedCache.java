@@ -0,0 +1,88 @@
+package com.petclinic.PetClinicBackend.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+// 🗃️ Small thread-safe LRU cache with per-entry expiry (no external cache dependency)
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long defaultTtlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public BoundedCache(int maxSize, long defaultTtlMillis) {
+        this(maxSize, defaultTtlMillis, System::currentTimeMillis);
+    }
+
+    // Epoch-millis clock, replaceable in tests
+    public BoundedCache(int maxSize, long defaultTtlMillis, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.defaultTtlMillis = defaultTtlMillis;
+        this.clock = clock;
+        // accessOrder = true → iteration order is least-recently-used first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > BoundedCache.this.maxSize;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= clock.getAsLong()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, clock.getAsLong() + defaultTtlMillis);
+    }
+
+    // ✅ Explicit expiry, e.g. a token's own "exp" claim
+    public synchronized void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= clock.getAsLong()) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    // ✅ Loader runs outside the lock so slow lookups never block other readers
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            put(key, loaded);
+        }
+        return loaded;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.petclinic.PetClinicBackend.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// 📄 Streaming RFC 4180 reader: one record at a time, quoted fields may contain commas, quotes ("") and newlines
+public class CsvReader implements Closeable {
+
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long lineNumber = 1;
+    private long recordLine;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Next record, or null at end of input; blank lines are skipped
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStarted = false;
+        recordLine = lineNumber;
+
+        int c;
+        while ((c = read()) != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    int following = peek();
+                    if (following == '"') {
+                        read();
+                        append(field, '"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    append(field, (char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+                fieldStarted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStarted = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                lineNumber++;
+                if (fields.isEmpty() && field.isEmpty() && !fieldStarted) {
+                    recordLine = lineNumber;
+                    continue; // blank line
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                append(field, (char) c);
+                fieldStarted = true;
+            }
+        }
+
+        if (quoted) {
+            throw new IOException("Unterminated quoted field starting on line " + recordLine);
+        }
+        if (fields.isEmpty() && field.isEmpty() && !fieldStarted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Line on which the last record returned by next() started
+    public long getRecordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void append(StringBuilder field, char c) throws IOException {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new IOException("Field longer than " + MAX_FIELD_LENGTH + " characters on line " + recordLine);
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
@@ -0,0 +1,187 @@
+package com.petclinic.PetClinicBackend.util;
+
+import com.petclinic.PetClinicBackend.dto.CursorPage;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+// 📄 Keyset (seek) pagination over any JpaSpecificationExecutor: no OFFSET scans, opaque cursors
+public final class KeysetPager {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 200;
+
+    private static final char SEP = '\u001F';
+    private static final String ENUM_PACKAGE = "com.petclinic.PetClinicBackend.model.";
+
+    private KeysetPager() {
+    }
+
+    public static <T, R> CursorPage<R> scroll(JpaSpecificationExecutor<T> executor,
+                                              Specification<T> spec,
+                                              Sort sort,
+                                              String cursor,
+                                              Integer size,
+                                              boolean withTotal,
+                                              Function<T, R> mapper) {
+        int limit = size == null ? DEFAULT_SIZE : Math.max(1, Math.min(size, MAX_SIZE));
+        Map<String, Object> after = decode(cursor, sort);
+        Specification<T> where = spec != null ? spec : (root, query, cb) -> null;
+
+        // One row past the page tells whether there is a next one
+        List<T> rows = executor.findBy(where.and(seek(sort, after)), q -> q.limit(limit + 1).all());
+        boolean hasNext = rows.size() > limit;
+        List<T> page = hasNext ? rows.subList(0, limit) : rows;
+
+        List<R> items = page.stream().map(mapper).toList();
+        String next = hasNext ? encode(sort, page.get(page.size() - 1)) : null;
+        // ✅ Total is a separate COUNT, never an OFFSET walk, and only on request
+        Long total = withTotal ? executor.count(where) : null;
+
+        return new CursorPage<>(items, next, total);
+    }
+
+    // ✅ "field" or "field,desc", restricted to a whitelist; id is always appended as the tiebreaker
+    public static Sort parseSort(String sortParam, Set<String> allowed, Sort defaultSort) {
+        Sort sort = defaultSort;
+        if (sortParam != null && !sortParam.isBlank()) {
+            String[] parts = sortParam.split(",");
+            String property = parts[0].trim();
+            if (!allowed.contains(property)) {
+                throw new IllegalArgumentException("Unsupported sort property: " + property);
+            }
+            Sort.Direction direction = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim())
+                    ? Sort.Direction.DESC : Sort.Direction.ASC;
+            sort = Sort.by(direction, property);
+        }
+        if (sort.getOrderFor("id") == null) {
+            Sort.Order first = sort.iterator().hasNext() ? sort.iterator().next() : Sort.Order.asc("id");
+            sort = sort.and(Sort.by(first.getDirection(), "id"));
+        }
+        return sort;
+    }
+
+    // 🧭 Orders by the sort with nulls lowest (first ascending, last descending, as MySQL does natively) and keeps
+    // the rows after the cursor's keys. Null keys get IS [NOT] NULL terms, as a comparison with NULL matches nothing.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static <T> Specification<T> seek(Sort sort, Map<String, Object> after) {
+        return (root, query, cb) -> {
+            HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+            List<Order> orders = new ArrayList<>();
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> equalSoFar = new ArrayList<>();
+            for (Sort.Order order : sort) {
+                Path path = path(root, order.getProperty());
+                orders.add(order.isAscending() ? hcb.asc(path, true) : hcb.desc(path, false));
+                if (after.isEmpty()) {
+                    continue;
+                }
+                Comparable value = (Comparable) after.get(order.getProperty());
+                Predicate beyond;
+                if (order.isAscending()) {
+                    beyond = value == null ? cb.isNotNull(path) : cb.greaterThan(path, value);
+                } else {
+                    beyond = value == null ? cb.disjunction() : cb.or(cb.lessThan(path, value), cb.isNull(path));
+                }
+                List<Predicate> terms = new ArrayList<>(equalSoFar);
+                terms.add(beyond);
+                alternatives.add(cb.and(terms.toArray(Predicate[]::new)));
+                equalSoFar.add(value == null ? cb.isNull(path) : cb.equal(path, value));
+            }
+            query.orderBy(orders);
+            return after.isEmpty() ? null : cb.or(alternatives.toArray(Predicate[]::new));
+        };
+    }
+
+    private static Path<?> path(Path<?> root, String property) {
+        Path<?> path = root;
+        for (String part : property.split("\\.")) {
+            path = path.get(part);
+        }
+        return path;
+    }
+
+    // 🔐 Cursor = base64url of the sort, then typed key/value triples; opaque to clients
+    static String encode(Sort sort, Object row) {
+        BeanWrapper values = new BeanWrapperImpl(row);
+        StringBuilder sb = new StringBuilder(signature(sort)).append(SEP);
+        for (Sort.Order order : sort) {
+            Object value = values.getPropertyValue(order.getProperty());
+            sb.append(order.getProperty()).append(SEP).append(typeTag(value)).append(SEP)
+                    .append(value == null ? "" : value.toString()).append(SEP);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Keys of the last row served; a cursor issued under another sort is a 400, not a silently wrong page
+    static Map<String, Object> decode(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return Map.of();
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            parts = raw.split(String.valueOf(SEP), -1);
+            for (int i = 1; i + 2 < parts.length; i += 3) {
+                keys.put(parts[i], parse(parts[i + 1], parts[i + 2]));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!parts[0].equals(signature(sort))) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
+        }
+        return keys;
+    }
+
+    private static String signature(Sort sort) {
+        StringBuilder sb = new StringBuilder();
+        for (Sort.Order order : sort) {
+            sb.append(order.getProperty()).append(order.isAscending() ? "+" : "-");
+        }
+        return sb.toString();
+    }
+
+    private static String typeTag(Object value) {
+        if (value == null) return "n";
+        if (value instanceof Long || value instanceof Integer) return "l";
+        if (value instanceof LocalDate) return "d";
+        if (value instanceof LocalDateTime) return "t";
+        if (value instanceof Enum<?> e) return "e:" + e.getDeclaringClass().getName();
+        return "s";
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parse(String tag, String value) {
+        if (tag.startsWith("e:")) {
+            if (!tag.startsWith("e:" + ENUM_PACKAGE)) {
+                throw new IllegalArgumentException("Unexpected cursor type");
+            }
+            try {
+                return Enum.valueOf((Class<Enum>) Class.forName(tag.substring(2)), value);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+        return switch (tag) {
+            case "n" -> null;
+            case "l" -> Long.valueOf(value);
+            case "d" -> LocalDate.parse(value);
+            case "t" -> LocalDateTime.parse(value);
+            default -> value;
+        };
+    }
+}
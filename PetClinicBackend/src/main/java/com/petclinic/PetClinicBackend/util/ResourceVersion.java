@@ -0,0 +1,76 @@
+package com.petclinic.PetClinicBackend.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * 🏷️ Validators for conditional GET: a strong ETag hashed from the (id, version) columns of every row a response
+ * is built from, plus the newest last-modified time among them. Both come from a scalar version query, so a
+ * matching If-None-Match / If-Modified-Since is answered with 304 before any entity is loaded or serialized.
+ * List queries select no timestamps (a deleted row would not move them), so lists are validated by ETag only.
+ */
+public final class ResourceVersion {
+
+    // Browsers may store the response but must revalidate it on every use
+    public static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final char SEP = '\u001F';
+
+    private final String etag;
+    private final long lastModified;
+
+    private ResourceVersion(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    // Rows of ids/versions (hashed) and optional Instant columns (newest one becomes Last-Modified)
+    public static ResourceVersion of(String kind, List<Object[]> rows) {
+        MessageDigest digest = sha256();
+        Instant newest = null;
+        StringBuilder row = new StringBuilder();
+        for (Object[] columns : rows) {
+            row.setLength(0);
+            for (Object column : columns) {
+                if (column instanceof Instant instant) {
+                    newest = newest == null || instant.isAfter(newest) ? instant : newest;
+                } else {
+                    row.append(column).append(SEP);
+                }
+            }
+            row.append('\n');
+            digest.update(row.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return new ResourceVersion(kind + "-" + HexFormat.of().formatHex(digest.digest(), 0, 12),
+                newest != null ? newest.toEpochMilli() : -1);
+    }
+
+    // True when the client's copy is current (the caller then answers 304); sets ETag / Last-Modified either way
+    public boolean notModified(WebRequest request) {
+        return request.checkNotModified(etag, lastModified);
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    // Epoch millis, or -1 when unknown
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
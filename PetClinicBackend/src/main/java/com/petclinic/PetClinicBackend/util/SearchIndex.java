@@ -0,0 +1,466 @@
+package com.petclinic.PetClinicBackend.util;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * 🔎 Embedded inverted index for typeahead search. Documents are (type, id, version, text fields); fields are
+ * folded to lower-case ASCII-ish terms and kept in a sorted term dictionary, so a query term matches exactly,
+ * as a prefix, or within one or two edits (fuzzy). All query terms must match; hits are ranked by how well.
+ * <p>
+ * Changes are applied in memory at once and written by {@link #flush()} as a new immutable {@link SearchSegment}
+ * holding only what changed; once there are more than {@code maxSegments}, the next flush compacts everything
+ * into one segment. {@link #open()} replays the segments, so a restart needs no reindex. Reads share a read
+ * lock; changes take the write lock briefly. Without a directory the index lives in memory only.
+ */
+public class SearchIndex {
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+    private static final int MAX_PREFIX_TERMS = 512;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final int maxSegments;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // guarded by lock
+    private final Map<Key, Doc> docs = new HashMap<>();
+    private final TreeMap<String, Set<Key>> terms = new TreeMap<>();
+    private final Map<Key, SearchSegment.Record> pending = new LinkedHashMap<>();
+    private long generation;
+    private long watermark;
+    private boolean watermarkChanged;
+
+    // guarded by this: one segment write at a time
+    private final List<Path> segments = new ArrayList<>();
+
+    public SearchIndex(Path directory, int maxSegments) {
+        this.directory = directory;
+        this.maxSegments = Math.max(1, maxSegments);
+    }
+
+    public record Doc(String type, long id, long version, List<String> fields) {
+
+        public Doc {
+            fields = fields.stream().map(field -> field != null ? field : "").toList();
+        }
+    }
+
+    public record Hit(Doc doc, int score) {
+    }
+
+    private record Key(String type, long id) {
+    }
+
+    // Replays the segments on disk; false when there are none. IOException for an unreadable one (see clear()).
+    public synchronized boolean open() throws IOException {
+        if (directory == null) {
+            return false;
+        }
+        Files.createDirectories(directory);
+        List<Path> found = new ArrayList<>();
+        String pattern = SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, pattern)) {
+            stream.forEach(found::add);
+        }
+        found.sort(Comparator.comparing(Path::getFileName));
+        lock.writeLock().lock();
+        try {
+            for (Path file : found) {
+                SearchSegment.Contents contents = SearchSegment.read(file);
+                for (SearchSegment.Record record : contents.records()) {
+                    Key key = new Key(record.type(), record.id());
+                    if (record.deleted()) {
+                        unindex(key, docs.remove(key));
+                    } else {
+                        Doc doc = new Doc(record.type(), record.id(), record.version(), record.fields());
+                        unindex(key, docs.put(key, doc));
+                        index(key, doc);
+                    }
+                }
+                generation = Math.max(generation, contents.generation());
+                watermark = Math.max(watermark, contents.watermark());
+            }
+            segments.clear();
+            segments.addAll(found);
+            return !found.isEmpty();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drops every document and segment file, e.g. before a rebuild
+    public synchronized void clear() throws IOException {
+        lock.writeLock().lock();
+        try {
+            docs.clear();
+            terms.clear();
+            pending.clear();
+            watermark = 0L;
+            watermarkChanged = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (directory != null && Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+                for (Path file : stream) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        segments.clear();
+    }
+
+    // Adds or replaces a document; an older version than the one indexed is ignored
+    public boolean put(Doc doc) {
+        Key key = new Key(doc.type(), doc.id());
+        lock.writeLock().lock();
+        try {
+            Doc current = docs.get(key);
+            if (current != null && current.version() > doc.version()) {
+                return false;
+            }
+            if (doc.equals(current)) {
+                return true;
+            }
+            docs.put(key, doc);
+            unindex(key, current);
+            index(key, doc);
+            pending.put(key, new SearchSegment.Record(doc.type(), doc.id(), doc.version(), false, doc.fields()));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(String type, long id) {
+        Key key = new Key(type, id);
+        lock.writeLock().lock();
+        try {
+            Doc current = docs.remove(key);
+            if (current != null) {
+                unindex(key, current);
+                pending.put(key, new SearchSegment.Record(type, id, current.version(), true, List.of()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Set<Long> ids(String type) {
+        lock.readLock().lock();
+        try {
+            Set<Long> ids = new HashSet<>();
+            docs.keySet().forEach(key -> {
+                if (key.type().equals(type)) {
+                    ids.add(key.id());
+                }
+            });
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller-defined progress marker (e.g. "DB changes before this time are indexed"), persisted with the segments
+    public long getWatermark() {
+        lock.readLock().lock();
+        try {
+            return watermark;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void setWatermark(long watermark) {
+        lock.writeLock().lock();
+        try {
+            this.watermark = watermark;
+            this.watermarkChanged = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Best matches first (score, then type and id); types null or empty = all types
+    public List<Hit> search(String query, Set<String> types, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(analyze(query)));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Key, Integer> scores = null;
+            for (String term : queryTerms) {
+                Map<Key, Integer> matches = match(term);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    Map<Key, Integer> both = new HashMap<>();
+                    for (Map.Entry<Key, Integer> entry : scores.entrySet()) {
+                        Integer score = matches.get(entry.getKey());
+                        if (score != null) {
+                            both.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = both;
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return scores.entrySet().stream()
+                    .filter(entry -> types == null || types.isEmpty() || types.contains(entry.getKey().type()))
+                    .sorted(Map.Entry.<Key, Integer>comparingByValue().reversed()
+                            .thenComparing(entry -> entry.getKey().type())
+                            .thenComparing(entry -> entry.getKey().id()))
+                    .limit(limit)
+                    .map(entry -> new Hit(docs.get(entry.getKey()), entry.getValue()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 💾 Writes the changes since the last flush as a new segment (or compacts all segments into one)
+    public synchronized void flush() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        Collection<SearchSegment.Record> records;
+        long segmentGeneration;
+        long segmentWatermark;
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (pending.isEmpty() && !watermarkChanged) {
+                return;
+            }
+            compact = segments.size() >= maxSegments;
+            records = compact
+                    ? docs.values().stream()
+                        .map(doc -> new SearchSegment.Record(doc.type(), doc.id(), doc.version(), false, doc.fields()))
+                        .toList()
+                    : List.copyOf(pending.values());
+            pending.clear();
+            watermarkChanged = false;
+            segmentGeneration = ++generation;
+            segmentWatermark = watermark;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Path file = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segmentGeneration, SEGMENT_SUFFIX));
+        try {
+            Files.createDirectories(directory);
+            SearchSegment.write(file, segmentGeneration, segmentWatermark, records);
+        } catch (IOException e) {
+            // Not written: keep the changes for the next flush, unless a newer change to the same document came in
+            lock.writeLock().lock();
+            try {
+                if (compact) {
+                    docs.forEach((key, doc) -> pending.putIfAbsent(key, new SearchSegment.Record(
+                            doc.type(), doc.id(), doc.version(), false, doc.fields())));
+                } else {
+                    records.forEach(record -> pending.putIfAbsent(new Key(record.type(), record.id()), record));
+                }
+                watermarkChanged = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        if (compact) {
+            for (Path old : segments) {
+                Files.deleteIfExists(old);
+            }
+            segments.clear();
+        }
+        segments.add(file);
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    // Lower-case terms of a text, accents removed; a phone-like text also yields its digits as one term
+    public static List<String> analyze(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> result = new ArrayList<>();
+        StringBuilder digits = new StringBuilder();
+        int numericParts = 0;
+        for (String part : SEPARATORS.split(folded)) {
+            if (!part.isEmpty()) {
+                result.add(part.length() > MAX_TERM_LENGTH ? part.substring(0, MAX_TERM_LENGTH) : part);
+                if (part.chars().allMatch(Character::isDigit)) {
+                    digits.append(part);
+                    numericParts++;
+                }
+            }
+        }
+        if (numericParts > 1 && digits.length() >= 7 && digits.length() <= MAX_TERM_LENGTH) {
+            result.add(digits.toString());
+        }
+        return result;
+    }
+
+    // Matching documents of one query term, with the best score per document
+    private Map<Key, Integer> match(String term) {
+        Map<Key, Integer> matches = new HashMap<>();
+        NavigableMap<String, Set<Key>> prefixed = terms.subMap(term, true, term + Character.MAX_VALUE, true);
+        int expanded = 0;
+        for (Map.Entry<String, Set<Key>> entry : prefixed.entrySet()) {
+            int score = entry.getKey().equals(term) ? EXACT : PREFIX;
+            entry.getValue().forEach(key -> matches.merge(key, score, Math::max));
+            if (++expanded >= MAX_PREFIX_TERMS) {
+                break;
+            }
+        }
+
+        int maxEdits = term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0) {
+            fuzzy(term, maxEdits, matches);
+        }
+        return matches;
+    }
+
+    // Terms with a start (typeahead) or the whole term within maxEdits of the query term. The sorted dictionary is
+    // walked as a trie: the Levenshtein rows of a shared prefix are reused by the next term, and a prefix whose row
+    // already exceeds maxEdits skips every term under it, so the work follows the query's neighbourhood rather than
+    // the dictionary size. Typos rarely hit the first letter: only terms sharing it are walked.
+    private void fuzzy(String term, int maxEdits, Map<Key, Integer> matches) {
+        int n = term.length();
+        int[][] rows = new int[MAX_TERM_LENGTH + 1][n + 1];
+        for (int j = 0; j <= n; j++) {
+            rows[0][j] = j;
+        }
+        String end = String.valueOf((char) (term.charAt(0) + 1));
+        String previous = "";
+        String candidate = terms.ceilingKey(term.substring(0, 1));
+        while (candidate != null && candidate.compareTo(end) < 0) {
+            int depth = sharedPrefix(previous, candidate);
+            String next = null;
+            while (next == null && depth < candidate.length()) {
+                depth++;
+                int rowMin = row(rows, depth, candidate.charAt(depth - 1), term);
+                String prefix = candidate.substring(0, depth);
+                if (rows[depth][n] <= maxEdits) {
+                    // Every term under this prefix starts within maxEdits of the query term
+                    int expanded = 0;
+                    for (Set<Key> keys : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                        keys.forEach(key -> matches.merge(key, FUZZY, Math::max));
+                        if (++expanded >= MAX_PREFIX_TERMS) {
+                            break;
+                        }
+                    }
+                    next = prefix;
+                } else if (rowMin > maxEdits) {
+                    next = prefix;
+                }
+            }
+            if (next != null) {
+                previous = next;
+                candidate = terms.higherKey(next + Character.MAX_VALUE);
+            } else {
+                previous = candidate;
+                candidate = terms.higherKey(candidate);
+            }
+        }
+    }
+
+    // Levenshtein row of the candidate's first depth letters against the whole term; returns its minimum
+    private static int row(int[][] rows, int depth, char letter, String term) {
+        int[] above = rows[depth - 1];
+        int[] current = rows[depth];
+        current[0] = depth;
+        int rowMin = depth;
+        for (int j = 1; j <= term.length(); j++) {
+            int cost = term.charAt(j - 1) == letter ? 0 : 1;
+            current[j] = Math.min(Math.min(current[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+            rowMin = Math.min(rowMin, current[j]);
+        }
+        return rowMin;
+    }
+
+    private static int sharedPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private void index(Key key, Doc doc) {
+        for (String term : termsOf(doc)) {
+            terms.computeIfAbsent(term, t -> new HashSet<>()).add(key);
+        }
+    }
+
+    private void unindex(Key key, Doc doc) {
+        if (doc == null) {
+            return;
+        }
+        for (String term : termsOf(doc)) {
+            Set<Key> keys = terms.get(term);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    terms.remove(term);
+                }
+            }
+        }
+    }
+
+    private static Set<String> termsOf(Doc doc) {
+        Set<String> result = new HashSet<>();
+        doc.fields().forEach(field -> result.addAll(analyze(field)));
+        return result;
+    }
+}
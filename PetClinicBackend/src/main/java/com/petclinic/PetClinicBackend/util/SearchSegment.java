@@ -0,0 +1,141 @@
+package com.petclinic.PetClinicBackend.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 💾 Immutable on-disk segment of the search index: the documents added or replaced and the documents deleted
+ * since the previous segment. Segments are written to a temporary file and moved into place, so a crash leaves
+ * either the whole segment or none of it, and are read through a read-only memory mapping. A trailing CRC32
+ * rejects torn or corrupted files.
+ * <p>
+ * Layout (big-endian): magic, format version, generation, watermark (epoch millis), record count, then per record
+ * type, id, version, a deleted flag and, unless deleted, its field count and UTF-8 fields; last the CRC32 of all
+ * preceding bytes.
+ */
+public final class SearchSegment {
+
+    private static final int MAGIC = 0x50435331; // "PCS1"
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_FIELD_BYTES = 64 * 1024;
+
+    private SearchSegment() {
+    }
+
+    // One document change; fields is empty for a deletion
+    public record Record(String type, long id, long version, boolean deleted, List<String> fields) {
+    }
+
+    public record Contents(long generation, long watermark, List<Record> records) {
+    }
+
+    public static void write(Path file, long generation, long watermark, Collection<Record> records)
+            throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream fileOut = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(
+                     new CheckedOutputStream(new BufferedOutputStream(fileOut), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(generation);
+            out.writeLong(watermark);
+            out.writeInt(records.size());
+            for (Record record : records) {
+                writeString(out, record.type());
+                out.writeLong(record.id());
+                out.writeLong(record.version());
+                out.writeBoolean(record.deleted());
+                if (!record.deleted()) {
+                    out.writeInt(record.fields().size());
+                    for (String field : record.fields()) {
+                        writeString(out, field != null ? field : "");
+                    }
+                }
+            }
+            out.flush();
+            new DataOutputStream(fileOut).writeInt((int) crc.getValue());
+            fileOut.flush();
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // IOException for a missing, torn, corrupted or foreign file
+    public static Contents read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid search segment size: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CRC32 crc = new CRC32();
+            crc.update(mapped.duplicate().limit((int) size - 4));
+            if ((int) crc.getValue() != mapped.getInt((int) size - 4)) {
+                throw new IOException("Search segment checksum mismatch: " + file);
+            }
+            ByteBuffer in = mapped.duplicate().limit((int) size - 4);
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a search segment of format " + FORMAT_VERSION + ": " + file);
+            }
+            long generation = in.getLong();
+            long watermark = in.getLong();
+            int count = in.getInt();
+            List<Record> records = new ArrayList<>(Math.min(count, 1 << 16));
+            for (int i = 0; i < count; i++) {
+                String type = readString(in);
+                long id = in.getLong();
+                long version = in.getLong();
+                boolean deleted = in.get() != 0;
+                List<String> fields = new ArrayList<>();
+                if (!deleted) {
+                    int fieldCount = in.getInt();
+                    for (int f = 0; f < fieldCount; f++) {
+                        fields.add(readString(in));
+                    }
+                }
+                records.add(new Record(type, id, version, deleted, List.copyOf(fields)));
+            }
+            return new Contents(generation, watermark, records);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated search segment: " + file, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FIELD_BYTES) {
+            bytes = value.substring(0, MAX_FIELD_BYTES / 4).getBytes(StandardCharsets.UTF_8);
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        int length = in.getInt();
+        if (length < 0 || length > MAX_FIELD_BYTES) {
+            throw new IOException("Invalid field length in search segment: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
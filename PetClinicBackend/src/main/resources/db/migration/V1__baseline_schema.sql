@@ -0,0 +1,83 @@
+-- Baseline: the schema Hibernate's ddl-auto=update produced before migrations took over.
+-- IF NOT EXISTS lets databases created by ddl-auto adopt this history without changes.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS roles (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_roles_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    role_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (role_id, user_id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES roles (id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS owner (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    address VARCHAR(255),
+    email VARCHAR(255),
+    name VARCHAR(255),
+    phone VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_owner_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS pet (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    birth_date DATE,
+    owner_id BIGINT NOT NULL,
+    breed VARCHAR(255),
+    name VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_pet_owner FOREIGN KEY (owner_id) REFERENCES owner (id)
+);
+
+CREATE TABLE IF NOT EXISTS vet (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255),
+    name VARCHAR(255),
+    phone VARCHAR(255),
+    specialization VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS visit (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    visit_date DATE NOT NULL,
+    pet_id BIGINT NOT NULL,
+    vet_id BIGINT NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    status ENUM ('CANCELLED', 'COMPLETED', 'UPCOMING') NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_visit_pet FOREIGN KEY (pet_id) REFERENCES pet (id),
+    CONSTRAINT fk_visit_vet FOREIGN KEY (vet_id) REFERENCES vet (id)
+);
+
+CREATE TABLE IF NOT EXISTS refresh_token (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    revoked BIT NOT NULL,
+    used BIT NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    family_id VARCHAR(36) NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_refresh_token_hash UNIQUE (token_hash),
+    INDEX idx_refresh_token_family (family_id)
+);
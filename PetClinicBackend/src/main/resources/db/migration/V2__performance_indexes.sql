@@ -0,0 +1,24 @@
+-- Indexes for the repository access paths; names must match the @Index declarations on the entities,
+-- SchemaIndexVerifier refuses to start the application when one is missing.
+
+-- VisitRepository: visits of a pet / of an owner's pets (ownerScope filter), newest first
+CREATE INDEX idx_visit_pet_date ON visit (pet_id, visit_date);
+-- VisitRepository: a vet's schedule and per-vet stats
+CREATE INDEX idx_visit_vet_date_status ON visit (vet_id, visit_date, status);
+-- Keyset pages sorted by visitDate (id is the tiebreaker)
+CREATE INDEX idx_visit_date ON visit (visit_date, id);
+
+-- PetRepository: findByOwnerId, findDTOsByOwnerId, findByIdAndOwnerId
+CREATE INDEX idx_pet_owner ON pet (owner_id);
+
+-- OwnerRepository: findByUser_Email / findIdByUserEmail resolve through users.email, then owner.user_id
+CREATE UNIQUE INDEX ux_owner_user ON owner (user_id);
+-- OwnerRepository: findByEmail / existsByEmail
+CREATE INDEX idx_owner_email ON owner (email);
+
+-- Role-filtered owner queries join user_roles from the role side
+CREATE INDEX idx_user_roles_role ON user_roles (role_id, user_id);
+
+-- RefreshTokenRepository: revokeAllForEmail and the expiry purge
+CREATE INDEX idx_refresh_token_email ON refresh_token (email);
+CREATE INDEX idx_refresh_token_expires ON refresh_token (expires_at);
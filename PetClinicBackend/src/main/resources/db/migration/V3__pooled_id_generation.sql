@@ -0,0 +1,15 @@
+-- Owner, Pet, Vet and Visit ids now come from Hibernate's pooled table generator (allocationSize = 50)
+-- instead of AUTO_INCREMENT, which lets Hibernate batch their inserts.
+-- With the pooled optimizer a stored value N hands out the block (N - 49 .. N], so each row is seeded
+-- 50 past the current max id to keep new ids clear of existing rows.
+
+CREATE TABLE id_sequence (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+INSERT INTO id_sequence (sequence_name, next_val) SELECT 'owner', COALESCE(MAX(id), 0) + 50 FROM owner;
+INSERT INTO id_sequence (sequence_name, next_val) SELECT 'pet', COALESCE(MAX(id), 0) + 50 FROM pet;
+INSERT INTO id_sequence (sequence_name, next_val) SELECT 'vet', COALESCE(MAX(id), 0) + 50 FROM vet;
+INSERT INTO id_sequence (sequence_name, next_val) SELECT 'visit', COALESCE(MAX(id), 0) + 50 FROM visit;
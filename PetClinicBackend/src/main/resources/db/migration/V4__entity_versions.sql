@@ -0,0 +1,20 @@
+-- Optimistic-lock versions and last-modified times for owner, pet, vet and visit.
+-- They back the ETag / Last-Modified headers of GET responses, so conditional requests can be
+-- answered from these columns without loading the entities.
+-- Existing rows start at version 0 and are stamped with the migration time.
+
+ALTER TABLE owner ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE owner ADD COLUMN last_modified DATETIME(6);
+UPDATE owner SET last_modified = CURRENT_TIMESTAMP(6);
+
+ALTER TABLE pet ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE pet ADD COLUMN last_modified DATETIME(6);
+UPDATE pet SET last_modified = CURRENT_TIMESTAMP(6);
+
+ALTER TABLE vet ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE vet ADD COLUMN last_modified DATETIME(6);
+UPDATE vet SET last_modified = CURRENT_TIMESTAMP(6);
+
+ALTER TABLE visit ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE visit ADD COLUMN last_modified DATETIME(6);
+UPDATE visit SET last_modified = CURRENT_TIMESTAMP(6);
@@ -0,0 +1,17 @@
+-- Visits get a start time and a duration. A timed visit holds one vet_slot row per slot it covers;
+-- the primary key (vet_id, slot_date, slot) makes double-booking a vet impossible, whichever instance writes.
+-- Existing visits have no start time and hold no slots.
+
+ALTER TABLE visit ADD COLUMN start_time TIME;
+ALTER TABLE visit ADD COLUMN duration_minutes INT;
+
+CREATE TABLE vet_slot (
+    vet_id BIGINT NOT NULL,
+    slot_date DATE NOT NULL,
+    slot INT NOT NULL,
+    visit_id BIGINT NOT NULL,
+    PRIMARY KEY (vet_id, slot_date, slot),
+    CONSTRAINT fk_vet_slot_visit FOREIGN KEY (visit_id) REFERENCES visit (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_vet_slot_visit ON vet_slot (visit_id);
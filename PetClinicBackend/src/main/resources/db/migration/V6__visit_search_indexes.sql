@@ -0,0 +1,5 @@
+-- GET /api/visits/search: every filter is a predicate on visit, ordered by visit_date (id as the tiebreaker).
+-- Status-filtered pages seek this index in date order, and their bounded count reads it alone.
+-- Vet filters use idx_visit_vet_date_status, owner and pet filters idx_visit_pet_date (through idx_pet_owner),
+-- date-only ranges idx_visit_date.
+CREATE INDEX idx_visit_status_date ON visit (status, visit_date, id);
@@ -0,0 +1,6 @@
+-- A rotated refresh token remembers when it was used and its successor, sealed with a key derived from the
+-- rotated token itself. Presenting it again within the reuse grace window (two tabs, a retried request) returns
+-- that successor instead of revoking the family. Only a holder of the old raw token can unseal it.
+
+ALTER TABLE refresh_token ADD COLUMN used_at DATETIME(6);
+ALTER TABLE refresh_token ADD COLUMN sealed_successor VARCHAR(128);
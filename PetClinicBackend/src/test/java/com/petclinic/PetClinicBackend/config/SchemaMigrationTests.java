@@ -0,0 +1,57 @@
+package com.petclinic.PetClinicBackend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs the real db/migration scripts (H2 in MySQL mode) and lets Hibernate validate the result
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SchemaMigrationConfig.class, SchemaIndexVerifier.class})
+class SchemaMigrationTests {
+
+	@Autowired
+	private SchemaMigrator schemaMigrator;
+
+	@Autowired
+	private SchemaIndexVerifier schemaIndexVerifier;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void everyDeclaredIndexExistsAfterMigration() {
+		assertEquals(List.of(), schemaIndexVerifier.findMissingIndexes());
+	}
+
+	@Test
+	void migrationsAreRecordedAndNotReapplied() {
+		Integer applied = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_version", Integer.class);
+
+		schemaMigrator.migrate();
+
+		assertTrue(applied >= 2);
+		assertEquals(applied, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM schema_version", Integer.class));
+	}
+
+	@Test
+	void missingIndexIsReported() {
+		jdbcTemplate.execute("DROP INDEX idx_owner_email ON owner");
+		try {
+			assertEquals(List.of("owner.idx_owner_email"), schemaIndexVerifier.findMissingIndexes());
+		} finally {
+			jdbcTemplate.execute("CREATE INDEX idx_owner_email ON owner (email)");
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.petclinic.PetClinicBackend.repository;
+
+import com.petclinic.PetClinicBackend.dto.OwnerDTO;
+import com.petclinic.PetClinicBackend.dto.PetResponseDTO;
+import com.petclinic.PetClinicBackend.dto.VisitView;
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.util.ResourceVersion;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class ProjectionQueryCountTests {
+
+	private static final int OWNERS = 5;
+	private static final int PETS_PER_OWNER = 3;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PetRepository petRepository;
+
+	@Autowired
+	private OwnerRepository ownerRepository;
+
+	@Autowired
+	private VisitRepository visitRepository;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void seed() {
+		Vet vet = new Vet();
+		vet.setName("Dr. Who");
+		vet.setSpecialization("Surgery");
+		entityManager.persist(vet);
+
+		for (int i = 0; i < OWNERS; i++) {
+			User user = new User();
+			user.setName("Owner " + i);
+			user.setUsername("owner" + i);
+			user.setEmail("owner" + i + "@petclinic.com");
+			user.setPassword("secret");
+			entityManager.persist(user);
+
+			Owner owner = new Owner(null, "Owner " + i, "owner" + i + "@petclinic.com", "555-000" + i, "Street " + i, user, null);
+			entityManager.persist(owner);
+
+			for (int j = 0; j < PETS_PER_OWNER; j++) {
+				Pet pet = new Pet(null, "Pet " + i + "-" + j, "Beagle", LocalDate.of(2020, 1, 1), owner);
+				entityManager.persist(pet);
+				entityManager.persist(new Visit(null, LocalDate.of(2025, 1, 1), "Checkup", pet, vet, VisitStatus.UPCOMING));
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void allPetsAreProjectedInOneStatement() {
+		List<PetResponseDTO> pets = petRepository.findAllAsDTO();
+
+		assertEquals(OWNERS * PETS_PER_OWNER, pets.size());
+		assertNotNull(pets.get(0).getOwner().getUsername());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	void allOwnersAreProjectedInOneStatement() {
+		List<OwnerDTO> owners = ownerRepository.findAllAsDTO();
+
+		assertEquals(OWNERS, owners.size());
+		assertEquals("owner0", owners.get(0).getUsername());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	void allVisitsAreProjectedInOneStatement() {
+		List<VisitView> visits = visitRepository.findAllViews();
+
+		assertEquals(OWNERS * PETS_PER_OWNER, visits.size());
+		assertEquals("Dr. Who", visits.get(0).getVet().getName());
+		assertNotNull(visits.get(0).getPet().getOwnerId());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	void exportStreamAppliesOptionalFiltersInOneStatement() {
+		LocalDate day = LocalDate.of(2025, 1, 1);
+		try (Stream<VisitView> all = visitRepository.streamViews(null, null, null);
+			 Stream<VisitView> inRange = visitRepository.streamViews(day, day, null);
+			 Stream<VisitView> otherVet = visitRepository.streamViews(day, null, -1L);
+			 Stream<VisitView> later = visitRepository.streamViews(day.plusDays(1), null, null)) {
+			assertEquals(OWNERS * PETS_PER_OWNER, all.count());
+			assertEquals(OWNERS * PETS_PER_OWNER, inRange.count());
+			assertEquals(0, otherVet.count());
+			assertEquals(0, later.count());
+		}
+		assertEquals(4, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	void versionQueriesLoadNoEntitiesAndTrackChanges() {
+		Long ownerId = ownerRepository.findAllAsDTO().get(0).getId();
+		statistics.clear();
+		List<Object[]> rows = petRepository.findVersionsByOwnerId(ownerId);
+		String etag = ResourceVersion.of("pets", rows).getEtag();
+
+		assertEquals(PETS_PER_OWNER, rows.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(etag, ResourceVersion.of("pets", petRepository.findVersionsByOwnerId(ownerId)).getEtag());
+
+		Long petId = (Long) rows.get(0)[0];
+		ResourceVersion single = ResourceVersion.of("pet", petRepository.findVersionById(petId));
+		assertTrue(single.getLastModified() > 0);
+
+		Pet pet = entityManager.find(Pet.class, petId);
+		pet.setName("Renamed");
+		entityManager.flush();
+
+		assertNotEquals(etag, ResourceVersion.of("pets", petRepository.findVersionsByOwnerId(ownerId)).getEtag());
+		assertNotEquals(single.getEtag(), ResourceVersion.of("pet", petRepository.findVersionById(petId)).getEtag());
+
+		// OwnerDTO.username comes from the user row: renaming it moves the owner's ETag
+		String ownerEtag = ResourceVersion.of("owner", ownerRepository.findVersionById(ownerId)).getEtag();
+		entityManager.find(Owner.class, ownerId).getUser().setUsername("renamed-owner");
+		entityManager.flush();
+		assertNotEquals(ownerEtag, ResourceVersion.of("owner", ownerRepository.findVersionById(ownerId)).getEtag());
+	}
+}
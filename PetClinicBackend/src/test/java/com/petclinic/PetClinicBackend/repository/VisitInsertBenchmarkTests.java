@@ -0,0 +1,101 @@
+package com.petclinic.PetClinicBackend.repository;
+
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Bulk visit insert throughput: mvn test -Dtest=VisitInsertBenchmarkTests -Dbenchmark=true [-Dbenchmark.rows=100000]
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VisitInsertBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(VisitInsertBenchmarkTests.class);
+	private static final int CHUNK = 1000;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private VisitRepository visitRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void bulkVisitInsertThroughput() {
+		int rows = Integer.getInteger("benchmark.rows", 100_000);
+		TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+		Object[] refs = tx.execute(status -> {
+			User user = new User();
+			user.setName("Bench");
+			user.setUsername("bench");
+			user.setEmail("bench@petclinic.com");
+			user.setPassword("secret");
+			entityManager.persist(user);
+			Owner owner = new Owner(null, "Bench", "bench@petclinic.com", null, null, user, null);
+			entityManager.persist(owner);
+			Pet pet = new Pet(null, "Rex", "Beagle", LocalDate.of(2020, 1, 1), owner);
+			entityManager.persist(pet);
+			Vet vet = new Vet();
+			vet.setName("Dr. Bench");
+			entityManager.persist(vet);
+			return new Object[] { pet, vet };
+		});
+		Pet pet = (Pet) refs[0];
+		Vet vet = (Vet) refs[1];
+
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		long start = System.nanoTime();
+		for (int done = 0; done < rows; done += CHUNK) {
+			int size = Math.min(CHUNK, rows - done);
+			tx.executeWithoutResult(status -> {
+				Pet petRef = entityManager.getReference(Pet.class, pet.getId());
+				Vet vetRef = entityManager.getReference(Vet.class, vet.getId());
+				List<Visit> chunk = new ArrayList<>(size);
+				for (int i = 0; i < size; i++) {
+					chunk.add(new Visit(null, LocalDate.of(2025, 1, 1).plusDays(i % 365), "Checkup", petRef, vetRef,
+							VisitStatus.UPCOMING));
+				}
+				visitRepository.saveAll(chunk);
+				entityManager.flush();
+				entityManager.clear();
+			});
+		}
+		long elapsed = System.nanoTime() - start;
+		long statements = statistics.getPrepareStatementCount();
+
+		assertEquals(rows, visitRepository.count());
+		logger.info("Visit inserts: {} rows in {} ms, {} rows/sec, {} JDBC statements prepared",
+				rows, elapsed / 1_000_000, Math.round(rows / (elapsed / 1e9)), statements);
+	}
+}
@@ -0,0 +1,18 @@
+package com.petclinic.PetClinicBackend.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBCryptPasswordEncoderTests {
+
+	@Test
+	void onlyLowerCostHashesAreUpgraded() {
+		AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5);
+
+		assertTrue(encoder.upgradeEncoding(new AdaptiveBCryptPasswordEncoder(4).encode("secret")));
+		assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+		assertFalse(encoder.upgradeEncoding(new AdaptiveBCryptPasswordEncoder(6).encode("secret")));
+		assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+	}
+}
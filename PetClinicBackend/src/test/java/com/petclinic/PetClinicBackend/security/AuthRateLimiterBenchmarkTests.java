@@ -0,0 +1,41 @@
+package com.petclinic.PetClinicBackend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Allowed-path cost of the auth rate limiter: mvn test -Dtest=AuthRateLimiterBenchmarkTests -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AuthRateLimiterBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(AuthRateLimiterBenchmarkTests.class);
+
+	// ⏱ An allowed request should cost well under a microsecond or two
+	@Test
+	void allowedPathAddsNegligibleLatency() {
+		AuthRateLimiter limiter = new AuthRateLimiter(new SimpleMeterRegistry(),
+				Long.MAX_VALUE / 4, Long.MAX_VALUE / 4, 5, 5, 600_000, 1000);
+		String[] ips = new String[256];
+		for (int i = 0; i < ips.length; i++) {
+			ips[i] = "10.0.0." + i;
+		}
+
+		for (int i = 0; i < 200_000; i++) { // warm-up
+			limiter.checkIp(ips[i & 255]);
+		}
+
+		int iterations = 1_000_000;
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			assertEquals(0L, limiter.checkIp(ips[i & 255]));
+		}
+		double nanosPerCall = (System.nanoTime() - start) / (double) iterations;
+
+		logger.info("AuthRateLimiter.checkIp: {} ns/op", String.format("%.1f", nanosPerCall));
+		assertTrue(nanosPerCall < 2_000, "rate limiter too slow: " + nanosPerCall + " ns/op");
+	}
+}
@@ -0,0 +1,131 @@
+package com.petclinic.PetClinicBackend.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthRateLimiterTests {
+
+	@Test
+	void bucketAllowsBurstThenRefills() {
+		long start = 0L;
+		TokenBucket bucket = new TokenBucket(3, 60, start); // 1 token per second
+
+		assertEquals(0L, bucket.tryConsume(start));
+		assertEquals(0L, bucket.tryConsume(start));
+		assertEquals(0L, bucket.tryConsume(start));
+
+		long wait = bucket.tryConsume(start);
+		assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(1));
+
+		assertEquals(0L, bucket.tryConsume(start + TimeUnit.SECONDS.toNanos(1)));
+	}
+
+	@Test
+	void idleFullBucketsAreEvicted() {
+		AtomicLong now = new AtomicLong();
+		AuthRateLimiter limiter = new AuthRateLimiter(new SimpleMeterRegistry(), 5, 60_000, 5, 60_000, 0, 1000,
+				now::get);
+
+		limiter.checkIp("10.0.0.1");
+		limiter.checkEmail("owner@petclinic.com");
+		limiter.evictIdleBuckets();
+		assertEquals(2, limiter.bucketCount()); // one token short of capacity
+
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1)); // 1 token per ms: both buckets are full again
+		limiter.evictIdleBuckets();
+		assertEquals(0, limiter.bucketCount());
+	}
+
+	@Test
+	void sprayedKeysNeverGrowPastTheCap() throws Exception {
+		AtomicLong now = new AtomicLong();
+		AuthRateLimiter limiter = new AuthRateLimiter(new SimpleMeterRegistry(), 5, 60_000, 2, 60_000, 0, 10,
+				now::get);
+		limiter.checkEmail("victim@petclinic.com");
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> sprayers = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int thread = t;
+				sprayers.add(executor.submit(() -> {
+					for (int i = 0; i < 1000; i++) {
+						limiter.checkEmail("spray-" + thread + "-" + i + "@example.com");
+					}
+				}));
+			}
+			for (Future<?> sprayer : sprayers) {
+				sprayer.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(10, limiter.bucketCount());
+
+		// New keys share the overflow bucket; the victim's own bucket was kept, not evicted for room
+		assertTrue(limiter.checkEmail("late@example.com") > 0);
+		assertEquals(0L, limiter.checkEmail("victim@petclinic.com"));
+		assertTrue(limiter.checkEmail("victim@petclinic.com") > 0);
+
+		now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10)); // all refilled: the sweep frees the room again
+		limiter.evictIdleBuckets();
+		assertEquals(0, limiter.bucketCount());
+		assertEquals(0L, limiter.checkEmail("late@example.com"));
+		assertEquals(1, limiter.bucketCount());
+	}
+
+	@Test
+	void emailBucketRejectsAfterCapacity() {
+		AuthRateLimiter limiter = new AuthRateLimiter(new SimpleMeterRegistry(), 100, 100, 2, 1, 600_000, 1000);
+
+		assertEquals(0L, limiter.checkEmail("owner@petclinic.com"));
+		assertEquals(0L, limiter.checkEmail("OWNER@petclinic.com "));
+		assertTrue(limiter.checkEmail("owner@petclinic.com") > 0);
+	}
+
+	@Test
+	void emailBucketAppliesWhateverTheBodyFraming() throws Exception {
+		AuthRateLimiter limiter = new AuthRateLimiter(new SimpleMeterRegistry(), 100, 100, 1, 1, 600_000, 1000);
+		AuthRateLimitFilter filter = new AuthRateLimitFilter(limiter, new ObjectMapper());
+		byte[] login = "{\"email\":\"owner@petclinic.com\",\"password\":\"x\"}".getBytes(StandardCharsets.UTF_8);
+
+		// Chunked: no Content-Length
+		MockHttpServletRequest chunked = new MockHttpServletRequest("POST", "/api/auth/login") {
+			@Override
+			public long getContentLengthLong() {
+				return -1L;
+			}
+		};
+		chunked.setContent(login);
+		assertEquals(200, filter(filter, chunked).getStatus());
+		chunked.setContent(login);
+		assertEquals(429, filter(filter, chunked).getStatus());
+
+		// Padded past the inspected size
+		MockHttpServletRequest padded = new MockHttpServletRequest("POST", "/api/auth/login");
+		padded.setContent((new String(login, StandardCharsets.UTF_8) + " ".repeat(10_000)).getBytes(StandardCharsets.UTF_8));
+		assertEquals(413, filter(filter, padded).getStatus());
+	}
+
+	private static MockHttpServletResponse filter(AuthRateLimitFilter filter, MockHttpServletRequest request)
+			throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
@@ -0,0 +1,79 @@
+package com.petclinic.PetClinicBackend.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTests {
+
+	private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+	private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+	private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000, 100, now::get);
+
+	@Test
+	void repeatedVerifyIsServedFromTheCache() {
+		String token = jwtUtil.generateToken(user("anna@petclinic.com"), 7L);
+		String other = jwtUtil.generateToken(user("bo@petclinic.com"), 8L);
+
+		VerifiedToken verified = jwtUtil.verify(token);
+		assertEquals("anna@petclinic.com", verified.subject());
+		assertEquals(List.of("ROLE_USER"), verified.roles());
+		assertEquals(7L, verified.ownerId());
+		assertSame(verified, jwtUtil.verify(token));
+
+		VerifiedToken otherVerified = jwtUtil.verify(other);
+		assertNotSame(verified, otherVerified);
+		assertEquals("bo@petclinic.com", otherVerified.subject());
+	}
+
+	@Test
+	void cachedEntryExpiresAtTheTokensExp() {
+		String token = jwtUtil.generateToken(user("anna@petclinic.com"), 7L);
+		VerifiedToken verified = jwtUtil.verify(token);
+		long exp = verified.expiration().getTime();
+
+		now.set(exp - 1);
+		assertSame(verified, jwtUtil.verify(token));
+
+		// At exp the entry is gone and the token is checked again; past it the parser rejects it
+		now.set(exp);
+		assertNotSame(verified, jwtUtil.verify(token));
+		now.set(exp + 1000);
+		assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(token));
+	}
+
+	@Test
+	void tamperedTokenIsNeverServedFromTheCache() {
+		String token = jwtUtil.generateToken(user("anna@petclinic.com"), 7L);
+		jwtUtil.verify(token);
+		String[] parts = token.split("\\.");
+
+		// Someone else's subject under Anna's signature
+		String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+				.replace("anna@petclinic.com", "admin@petclinic.com");
+		String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+		assertThrows(SignatureException.class, () -> jwtUtil.verify(forged));
+
+		char[] signature = parts[2].toCharArray();
+		signature[10] = signature[10] == 'A' ? 'B' : 'A';
+		String badSignature = parts[0] + "." + parts[1] + "." + new String(signature);
+		assertThrows(SignatureException.class, () -> jwtUtil.verify(badSignature));
+
+		assertEquals("anna@petclinic.com", jwtUtil.verify(token).subject());
+	}
+
+	private static UserDetails user(String email) {
+		return User.withUsername(email).password("secret").roles("USER").build();
+	}
+}
@@ -0,0 +1,288 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.exception.SlotUnavailableException;
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.VetSlot;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.PetRepository;
+import com.petclinic.PetClinicBackend.repository.UserRepository;
+import com.petclinic.PetClinicBackend.repository.VetRepository;
+import com.petclinic.PetClinicBackend.repository.VetSlotRepository;
+import com.petclinic.PetClinicBackend.security.OwnerScope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Real commits (no test transaction): slots are confirmed or released when the booking transaction completes
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({VisitService.class, VetService.class, VetDirectory.class, BookingEngine.class, VetLoadBalancer.class,
+		OwnerHomeCache.class, SingleFlight.class, ClinicStatsService.class, SimpleMeterRegistry.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class BookingEngineTests {
+
+	private static final int CALLERS = 8;
+
+	@Autowired
+	private VisitService visitService;
+
+	@Autowired
+	private VetService vetService;
+
+	@Autowired
+	private BookingEngine bookingEngine;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OwnerRepository ownerRepository;
+
+	@Autowired
+	private PetRepository petRepository;
+
+	@Autowired
+	private VetRepository vetRepository;
+
+	@Autowired
+	private VetSlotRepository vetSlotRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@MockitoBean
+	private UserService userService;
+
+	@MockitoBean
+	private OwnerScope ownerScope;
+
+	private final LocalDate day = LocalDate.now().plusDays(1);
+	private Pet pet;
+	private Vet vet;
+
+	@BeforeEach
+	void seed() {
+		String email = "booking" + System.nanoTime() + "@petclinic.com";
+		User user = new User();
+		user.setName("Booking Owner");
+		user.setUsername(email);
+		user.setEmail(email);
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		Owner owner = ownerRepository.save(new Owner(null, "Booking Owner", email, "555-0100", "Street 1", user, null));
+		pet = petRepository.save(new Pet(null, "Rex", "Beagle", LocalDate.of(2020, 1, 1), owner));
+		Vet newVet = new Vet();
+		newVet.setName("Dr. Slot");
+		newVet.setSpecialization("Surgery");
+		vet = vetRepository.save(newVet);
+	}
+
+	@Test
+	void concurrentOverlappingBookingsHaveOneWinner() throws Exception {
+		bookingEngine.bookedMask(vet.getId(), day); // loaded before the race
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		List<Future<Boolean>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < CALLERS; i++) {
+				// 09:00-09:45, 09:15-10:00, ...: every pair overlaps with at least one other
+				LocalTime startTime = LocalTime.of(9, 0).plusMinutes(15L * (i % 3));
+				results.add(executor.submit(() -> {
+					start.await(5, TimeUnit.SECONDS);
+					try {
+						visitService.saveVisit(timedVisit(startTime, 45));
+						return true;
+					} catch (SlotUnavailableException e) {
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+			int booked = 0;
+			for (Future<Boolean> result : results) {
+				booked += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+			}
+			assertEquals(1, booked);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(3, vetSlotRepository.findBookedSlots(vet.getId(), day).size());
+		assertEquals(3, Long.bitCount(bookingEngine.bookedMask(vet.getId(), day)));
+	}
+
+	@Test
+	void cancellingReschedulingAndDeletingFreeSlots() {
+		Visit first = visitService.saveVisit(timedVisit(LocalTime.of(10, 0), null));
+		assertEquals(bookingEngine.slotMask(LocalTime.of(10, 0), 30), bookingEngine.bookedMask(vet.getId(), day));
+		assertThrows(SlotUnavailableException.class, () -> visitService.saveVisit(timedVisit(LocalTime.of(10, 15), 15)));
+
+		// Moving within the day keeps the overlapping slot and frees the rest
+		first.setStartTime(LocalTime.of(10, 15));
+		first = visitService.saveVisit(first);
+		assertEquals(bookingEngine.slotMask(LocalTime.of(10, 15), 30), bookingEngine.bookedMask(vet.getId(), day));
+		Visit second = visitService.saveVisit(timedVisit(LocalTime.of(10, 0), 15));
+
+		first.setStatus(VisitStatus.CANCELLED);
+		visitService.saveVisit(first);
+		assertEquals(bookingEngine.slotMask(LocalTime.of(10, 0), 15), bookingEngine.bookedMask(vet.getId(), day));
+
+		visitService.deleteVisit(second.getId());
+		assertEquals(0L, bookingEngine.bookedMask(vet.getId(), day));
+		assertTrue(vetSlotRepository.findBookedSlots(vet.getId(), day).isEmpty());
+
+		assertThrows(IllegalArgumentException.class, () -> visitService.saveVisit(timedVisit(LocalTime.of(10, 5), 30)));
+		assertThrows(IllegalArgumentException.class, () -> visitService.saveVisit(timedVisit(LocalTime.of(19, 45), 30)));
+	}
+
+	@Test
+	void slotTakenThroughAnotherInstanceIsAConflict() {
+		Visit elsewhere = visitService.saveVisit(timedVisit(null, null));
+		bookingEngine.bookedMask(vet.getId(), day);
+		// Another instance booked 11:00 after this one loaded its bitmaps
+		int slot = Long.numberOfTrailingZeros(bookingEngine.slotMask(LocalTime.of(11, 0), 15));
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> entityManager.persist(
+				new VetSlot(vet.getId(), day, slot, entityManager.getReference(Visit.class, elsewhere.getId()))));
+
+		assertThrows(SlotUnavailableException.class, () -> visitService.saveVisit(timedVisit(LocalTime.of(11, 0), 30)));
+		assertEquals(1L << slot, bookingEngine.bookedMask(vet.getId(), day));
+		visitService.saveVisit(timedVisit(LocalTime.of(11, 15), 30));
+	}
+
+	@Test
+	void freeSlotSearchReturnsEarliestStartsAcrossVets() {
+		visitService.saveVisit(timedVisit(LocalTime.of(8, 0), 30));
+		Vet other = new Vet();
+		other.setName("Dr. Other");
+		other.setSpecialization("Surgery");
+		other = vetRepository.save(other);
+
+		List<BookingEngine.FreeSlot> slots = bookingEngine.findFreeSlots(List.of(vet.getId(), other.getId()),
+				day, day.plusDays(365), 30, 3);
+		assertEquals(List.of(
+				new BookingEngine.FreeSlot(other.getId(), day, LocalTime.of(8, 0)),
+				new BookingEngine.FreeSlot(other.getId(), day, LocalTime.of(8, 15)),
+				new BookingEngine.FreeSlot(vet.getId(), day, LocalTime.of(8, 30))), slots);
+
+		// The last start of the day still fits; nothing is offered in the past
+		List<BookingEngine.FreeSlot> wholeDay = bookingEngine.findFreeSlots(List.of(vet.getId()), day, day, 30, 100);
+		assertEquals(LocalTime.of(19, 30), wholeDay.get(wholeDay.size() - 1).startTime());
+		assertTrue(bookingEngine.findFreeSlots(List.of(vet.getId()), day.minusDays(30), day.minusDays(2), 30, 5)
+				.isEmpty());
+	}
+
+	@Test
+	void autoAssignmentPicksTheLeastLoadedFreeVet() {
+		String specialization = "Dermatology" + System.nanoTime();
+		Vet first = vetService.addVet(newVet(specialization));
+		Vet second = vetService.addVet(newVet(specialization));
+		assertEquals(first.getId(), vetService.assignVet(specialization, day, null, null));
+
+		Visit timed = new Visit(null, day, "Rash", pet, first, VisitStatus.UPCOMING);
+		timed.setStartTime(LocalTime.of(9, 0));
+		timed = visitService.saveVisit(timed);
+		assertEquals(second.getId(), vetService.assignVet(specialization, day, null, null));
+
+		visitService.saveVisit(new Visit(null, day, "Rash", pet, second, VisitStatus.UPCOMING));
+		visitService.saveVisit(new Visit(null, day, "Itch", pet, second, VisitStatus.UPCOMING));
+		assertEquals(first.getId(), vetService.assignVet(specialization, day, null, null));
+		// Less loaded, but busy at 09:15
+		assertEquals(second.getId(), vetService.assignVet(specialization, day, LocalTime.of(9, 15), 15));
+
+		// Completing a visit takes it off its vet's load, but it keeps its slots
+		timed.setStatus(VisitStatus.COMPLETED);
+		visitService.saveVisit(timed);
+		assertEquals(first.getId(), vetService.assignVet(specialization, day, null, null));
+
+		Visit clash = new Visit(null, day, "Rash", pet, second, VisitStatus.UPCOMING);
+		clash.setStartTime(LocalTime.of(9, 0));
+		visitService.saveVisit(clash);
+		assertThrows(SlotUnavailableException.class,
+				() -> vetService.assignVet(specialization, day, LocalTime.of(9, 0), 30));
+	}
+
+	@Test
+	void pickedVetsAreHeldUntilTheirTransactionCompletes() throws Exception {
+		String specialization = "Cardiology" + System.nanoTime();
+		Vet first = vetService.addVet(newVet(specialization));
+		Vet second = vetService.addVet(newVet(specialization));
+
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.executeWithoutResult(status -> {
+			assertEquals(first.getId(), vetService.assignVet(specialization, day, null, null));
+			assertEquals(second.getId(), vetService.assignVet(specialization, day, null, null));
+			status.setRollbackOnly();
+		});
+		assertEquals(first.getId(), vetService.assignVet(specialization, day, null, null)); // holds undone
+
+		// Concurrent auto-assigned bookings spread over both vets
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		List<Future<Long>> assigned = new ArrayList<>();
+		try {
+			for (int i = 0; i < CALLERS; i++) {
+				assigned.add(executor.submit(() -> {
+					start.await(5, TimeUnit.SECONDS);
+					return visitService.saveVisitWithAssignedVet(
+							new Visit(null, day, "Murmur", pet, null, VisitStatus.UPCOMING), specialization).getVet().getId();
+				}));
+			}
+			start.countDown();
+			int onFirst = 0;
+			for (Future<Long> vetId : assigned) {
+				onFirst += vetId.get(10, TimeUnit.SECONDS).equals(first.getId()) ? 1 : 0;
+			}
+			assertEquals(CALLERS / 2, onFirst);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static Vet newVet(String specialization) {
+		Vet vet = new Vet();
+		vet.setName("Dr. " + specialization);
+		vet.setSpecialization(specialization);
+		return vet;
+	}
+
+	private Visit timedVisit(LocalTime startTime, Integer durationMinutes) {
+		Visit visit = new Visit(null, day, "Surgery", pet, vet, VisitStatus.UPCOMING);
+		visit.setStartTime(startTime);
+		visit.setDurationMinutes(durationMinutes);
+		return visit;
+	}
+}
@@ -0,0 +1,111 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.dto.ImportReport;
+import com.petclinic.PetClinicBackend.model.Role;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.PetRepository;
+import com.petclinic.PetClinicBackend.repository.RoleRepository;
+import com.petclinic.PetClinicBackend.repository.UserRepository;
+import com.petclinic.PetClinicBackend.repository.VetRepository;
+import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Batches of 2 so refs, duplicate checks and failures cross transaction boundaries
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"import.batch-size=2"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ClinicImportService.class)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class ClinicImportServiceTests {
+
+	@Autowired
+	private ClinicImportService clinicImportService;
+
+	@Autowired
+	private RoleRepository roleRepository;
+
+	@Autowired
+	private VetRepository vetRepository;
+
+	@Autowired
+	private OwnerRepository ownerRepository;
+
+	@Autowired
+	private PetRepository petRepository;
+
+	@Autowired
+	private VisitRepository visitRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Test
+	void importsValidRowsAndReportsTheRest() {
+		roleRepository.save(new Role(null, "ROLE_USER", new HashSet<>()));
+		Vet vet = new Vet();
+		vet.setName("Dr. Import");
+		vet.setEmail("import.vet@petclinic.com");
+		vetRepository.save(vet);
+		User erin = new User();
+		erin.setName("Erin");
+		erin.setUsername("erin@example.com");
+		erin.setEmail("erin.work@example.com");
+		erin.setPassword("secret");
+		userRepository.save(erin);
+
+		String csv = """
+				type,ref,a,b,c,d
+				owner,o1,Alice,alice@example.com,555-1,"1 Main St, Springfield"
+				owner,o2,Bob,alice@example.com,555-2,
+				pet,p1,o1,Rex,Beagle,2020-05-01
+				pet,p2,o9,Ghost,,
+				visit,p1,import.vet@petclinic.com,2025-01-10,,"Checkup, ""routine""
+				second line"
+				visit,p1,%d,2025-02-10,UPCOMING,Vaccination
+				visit,p1,nobody@petclinic.com,2025-03-10,,Lost vet
+				owner,o3,Carol,not-an-email,,
+				owner,o4,Dave,dave@example.com,%s,
+				owner,o5,Erin,erin@example.com,,
+				""".formatted(vet.getId(), "5".repeat(256));
+
+		ImportReport report = clinicImportService.importCsv(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+		assertFalse(report.isRunning());
+		assertEquals(10, report.getRowsRead());
+		assertEquals(1, report.getOwnersImported());
+		assertEquals(1, report.getPetsImported());
+		assertEquals(2, report.getVisitsImported());
+		assertEquals(6, report.getFailedRows());
+		assertEquals(List.of(3L, 5L, 9L, 10L, 11L, 12L),
+				report.getErrors().stream().map(ImportReport.RowError::getLine).toList());
+
+		assertEquals(1, ownerRepository.count());
+		assertEquals(1, petRepository.count());
+		assertTrue(visitRepository.findAll().stream()
+				.map(Visit::getDescription)
+				.anyMatch("Checkup, \"routine\"\nsecond line"::equals));
+		assertTrue(userRepository.findByEmail("dave@example.com").isEmpty()); // rejected row left no account
+		assertEquals(10, clinicImportService.getStatus().getRowsRead());
+	}
+}
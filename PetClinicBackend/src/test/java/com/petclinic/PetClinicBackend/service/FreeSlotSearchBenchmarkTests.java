@@ -0,0 +1,114 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.PetRepository;
+import com.petclinic.PetClinicBackend.repository.UserRepository;
+import com.petclinic.PetClinicBackend.repository.VetRepository;
+import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Year-long free slot search latency: mvn test -Dtest=FreeSlotSearchBenchmarkTests -Dbenchmark=true [-Dbenchmark.vets=10]
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.show-sql=false"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(BookingEngine.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FreeSlotSearchBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(FreeSlotSearchBenchmarkTests.class);
+	private static final int DAYS = 365;
+	private static final int WARMUP = 2_000;
+	private static final int RUNS = 10_000;
+
+	@Autowired
+	private BookingEngine bookingEngine;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OwnerRepository ownerRepository;
+
+	@Autowired
+	private PetRepository petRepository;
+
+	@Autowired
+	private VetRepository vetRepository;
+
+	@Autowired
+	private VisitRepository visitRepository;
+
+	@Test
+	void yearLongSearchP99IsUnderAMillisecond() {
+		int vetCount = Integer.getInteger("benchmark.vets", 10);
+		User user = new User();
+		user.setName("Bench");
+		user.setUsername("bench");
+		user.setEmail("bench@petclinic.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		Owner owner = ownerRepository.save(new Owner(null, "Bench", "bench@petclinic.com", null, null, user, null));
+		Pet pet = petRepository.save(new Pet(null, "Rex", "Beagle", LocalDate.of(2020, 1, 1), owner));
+
+		// One 14:00 visit per vet-day leaves no 7-hour gap: every search scans the whole year and finds nothing
+		LocalDate from = LocalDate.now().plusDays(1);
+		List<Long> vetIds = new ArrayList<>();
+		for (int v = 0; v < vetCount; v++) {
+			Vet vet = new Vet();
+			vet.setName("Dr. Bench " + v);
+			vet = vetRepository.save(vet);
+			vetIds.add(vet.getId());
+			List<Visit> visits = new ArrayList<>(DAYS);
+			for (int d = 0; d < DAYS; d++) {
+				Visit visit = new Visit(null, from.plusDays(d), "Checkup", pet, vet, VisitStatus.UPCOMING);
+				visit.setStartTime(LocalTime.of(14, 0));
+				visits.add(visit);
+			}
+			visitRepository.saveAll(visits);
+		}
+		bookingEngine.resync();
+		LocalDate to = from.plusDays(DAYS - 1);
+
+		for (int i = 0; i < WARMUP; i++) {
+			assertTrue(bookingEngine.findFreeSlots(vetIds, from, to, 420, 20).isEmpty());
+		}
+		long[] nanos = new long[RUNS];
+		for (int i = 0; i < RUNS; i++) {
+			long start = System.nanoTime();
+			bookingEngine.findFreeSlots(vetIds, from, to, 420, 20);
+			nanos[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(nanos);
+		long p50 = nanos[RUNS / 2];
+		long p99 = nanos[RUNS * 99 / 100];
+
+		logger.info("Free slot search, {} vets x {} days: p50 {} us, p99 {} us", vetCount, DAYS, p50 / 1_000,
+				p99 / 1_000);
+		assertTrue(p99 < 1_000_000, "p99 was " + p99 / 1_000 + " us");
+	}
+}
@@ -0,0 +1,179 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.dto.PetResponseDTO;
+import com.petclinic.PetClinicBackend.dto.VisitView;
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.PetRepository;
+import com.petclinic.PetClinicBackend.repository.UserRepository;
+import com.petclinic.PetClinicBackend.repository.VetRepository;
+import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import com.petclinic.PetClinicBackend.security.OwnerScope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+// Real commits (no test transaction): evictions run after commit
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({PetService.class, VisitService.class, OwnerHomeCache.class, SingleFlight.class, SimpleMeterRegistry.class,
+		BookingEngine.class, ClinicStatsService.class, VetService.class, VetDirectory.class, VetLoadBalancer.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class OwnerHomeCacheTests {
+
+	@Autowired
+	private PetService petService;
+
+	@Autowired
+	private VisitService visitService;
+
+	@Autowired
+	private OwnerHomeCache homeCache;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OwnerRepository ownerRepository;
+
+	@Autowired
+	private PetRepository petRepository;
+
+	@Autowired
+	private VetRepository vetRepository;
+
+	@Autowired
+	private VisitRepository visitRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockitoBean
+	private UserService userService;
+
+	@MockitoBean
+	private OwnerScope ownerScope;
+
+	private Statistics statistics;
+	private String email;
+	private Owner owner;
+	private Pet pet;
+	private Vet vet;
+
+	@BeforeEach
+	void seed() {
+		email = "home" + System.nanoTime() + "@petclinic.com";
+		owner = saveOwner(email);
+		pet = petRepository.save(new Pet(null, "Rex", "Beagle", LocalDate.of(2020, 1, 1), owner));
+		Vet newVet = new Vet();
+		newVet.setName("Dr. Home");
+		newVet.setSpecialization("Surgery");
+		vet = vetRepository.save(newVet);
+		visitRepository.save(new Visit(null, LocalDate.of(2025, 1, 1), "Checkup", pet, vet, VisitStatus.UPCOMING));
+
+		when(userService.getCurrentOwnerId()).thenReturn(owner.getId());
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(email, null, List.of()));
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		homeCache.evictAll();
+	}
+
+	@AfterEach
+	void clearSecurityContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void repeatReadsRunNoQueryAndPetWritesEvictTheOwner() {
+		OwnerHomeCache.Entry<List<PetResponseDTO>> first = petService.getMyPetsEntry();
+		statistics.clear();
+		assertSame(first, petService.getMyPetsEntry());
+		assertEquals(0, statistics.getPrepareStatementCount());
+
+		Pet changes = new Pet();
+		changes.setName("Rexy");
+		petService.updatePet(pet.getId(), changes);
+
+		OwnerHomeCache.Entry<List<PetResponseDTO>> updated = petService.getMyPetsEntry();
+		assertEquals("Rexy", updated.body().get(0).getName());
+		assertNotEquals(first.version().getEtag(), updated.version().getEtag());
+
+		petService.createPet(owner.getId(), new Pet(null, "Tom", "Tabby", LocalDate.of(2021, 5, 5), null));
+		assertEquals(2, petService.getMyPetsEntry().body().size());
+	}
+
+	@Test
+	void movingAVisitEvictsBothOwners() {
+		Owner other = saveOwner("other" + System.nanoTime() + "@petclinic.com");
+		Pet otherPet = petRepository.save(new Pet(null, "Tom", "Tabby", LocalDate.of(2021, 5, 5), other));
+		String mineBefore = visitService.getMyVisitsEntry(email).version().getEtag();
+		homeCache.get(other.getId(), OwnerHomeCache.Resource.VISITS,
+				() -> new OwnerHomeCache.Entry<>(List.of(), null));
+
+		Visit visit = visitRepository.findByPet_Owner_Id(owner.getId()).get(0);
+		visit.setPet(otherPet);
+		visitService.saveVisit(visit);
+
+		OwnerHomeCache.Entry<List<VisitView>> mine = visitService.getMyVisitsEntry(email);
+		assertTrue(mine.body().isEmpty());
+		assertNotEquals(mineBefore, mine.version().getEtag());
+		AtomicInteger loads = new AtomicInteger();
+		homeCache.get(other.getId(), OwnerHomeCache.Resource.VISITS, () -> {
+			loads.incrementAndGet();
+			return new OwnerHomeCache.Entry<>(List.of(), null);
+		});
+		assertEquals(1, loads.get());
+	}
+
+	@Test
+	void loadOverlappingAnEvictionIsNotStored() {
+		AtomicInteger loads = new AtomicInteger();
+		for (int i = 0; i < 2; i++) {
+			homeCache.get(owner.getId(), OwnerHomeCache.Resource.PETS, () -> {
+				loads.incrementAndGet();
+				homeCache.evict(owner.getId()); // a write committed while this load was running
+				return new OwnerHomeCache.Entry<>(List.of(), null);
+			});
+		}
+		assertEquals(2, loads.get());
+		assertEquals(0, homeCache.size());
+	}
+
+	private Owner saveOwner(String ownerEmail) {
+		User user = new User();
+		user.setName("Home Owner");
+		user.setUsername(ownerEmail);
+		user.setEmail(ownerEmail);
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		return ownerRepository.save(new Owner(null, "Home Owner", ownerEmail, "555-0100", "Street 1", user, null));
+	}
+}
@@ -0,0 +1,82 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.exception.InvalidTokenException;
+import com.petclinic.PetClinicBackend.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Real commits (no test transaction): a revocation must survive the InvalidTokenException that reports it
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTests {
+
+	private static final long GRACE_MILLIS = 30_000;
+	private static final AtomicReference<Instant> NOW = new AtomicReference<>();
+
+	@TestConfiguration
+	static class Clocked {
+		@Bean
+		RefreshTokenService refreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+			return new RefreshTokenService(refreshTokenRepository, 1_209_600_000, GRACE_MILLIS, NOW::get);
+		}
+	}
+
+	@Autowired
+	private RefreshTokenService service;
+
+	@BeforeEach
+	void resetClock() {
+		NOW.set(Instant.parse("2025-03-10T12:00:00Z"));
+	}
+
+	@Test
+	void rotationHandsOutASuccessorAndRepeatsItWithinTheGraceWindow() {
+		String first = service.issue("owner@petclinic.com");
+
+		RefreshTokenService.Rotation rotation = service.rotate(first);
+		assertEquals("owner@petclinic.com", rotation.email());
+		assertNotEquals(first, rotation.refreshToken());
+
+		// A second tab presenting the same token gets the same successor, and the family stays valid
+		NOW.set(NOW.get().plusMillis(GRACE_MILLIS));
+		assertEquals(rotation.refreshToken(), service.rotate(first).refreshToken());
+		assertNotNull(service.rotate(rotation.refreshToken()).refreshToken());
+	}
+
+	@Test
+	void reuseAfterTheGraceWindowRevokesTheFamily() {
+		String first = service.issue("owner@petclinic.com");
+		String second = service.rotate(first).refreshToken();
+		String other = service.issue("owner@petclinic.com");
+
+		NOW.set(NOW.get().plusMillis(GRACE_MILLIS + 1));
+		assertThrows(InvalidTokenException.class, () -> service.rotate(first));
+		assertThrows(InvalidTokenException.class, () -> service.rotate(second));
+		assertNotNull(service.rotate(other).refreshToken()); // another login is untouched
+	}
+
+	@Test
+	void logoutRevokesTheFamily() {
+		String first = service.issue("owner@petclinic.com");
+		String second = service.rotate(first).refreshToken();
+
+		service.revoke(first);
+
+		assertThrows(InvalidTokenException.class, () -> service.rotate(second));
+		assertThrows(InvalidTokenException.class, () -> service.rotate("unknown-token"));
+	}
+}
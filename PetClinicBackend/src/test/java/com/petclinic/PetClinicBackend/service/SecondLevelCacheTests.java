@@ -0,0 +1,153 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.PetRepository;
+import com.petclinic.PetClinicBackend.repository.UserRepository;
+import com.petclinic.PetClinicBackend.security.OwnerScope;
+import com.petclinic.PetClinicBackend.security.PrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+// Real commits (no test transaction): the L2 cache is only written and invalidated at commit
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OwnerService.class, PetService.class, OwnerHomeCache.class, SingleFlight.class, SimpleMeterRegistry.class})
+class SecondLevelCacheTests {
+
+	@Autowired
+	private OwnerService ownerService;
+
+	@Autowired
+	private PetService petService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OwnerRepository ownerRepository;
+
+	@Autowired
+	private PetRepository petRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockitoBean
+	private UserService userService;
+
+	@MockitoBean
+	private OwnerScope ownerScope;
+
+	@MockitoBean
+	private PrincipalCache principalCache;
+
+	@MockitoBean
+	private RefreshTokenService refreshTokenService;
+
+	private Statistics statistics;
+	private String email;
+	private Owner owner;
+	private Pet pet;
+
+	@BeforeEach
+	void seed() {
+		email = "cached" + System.nanoTime() + "@petclinic.com";
+		User user = new User();
+		user.setName("Cached Owner");
+		user.setUsername(email);
+		user.setEmail(email);
+		user.setPassword("secret");
+		user = userRepository.save(user);
+
+		owner = ownerRepository.save(new Owner(null, "Cached Owner", email, "555-0100", "Street 1", user, null));
+		pet = petRepository.save(new Pet(null, "Rex", "Beagle", LocalDate.of(2020, 1, 1), owner));
+		when(userService.getCurrentOwnerId()).thenReturn(owner.getId());
+
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+	}
+
+	@Test
+	void repeatedReadsAreServedWithoutSql() {
+		ownerService.getOwnerById(owner.getId());
+		ownerService.findOwnerByUserEmail(email);
+		petService.getMyPets();
+		petService.getPetById(pet.getId());
+		statistics.clear();
+
+		assertEquals("Cached Owner", ownerService.getOwnerById(owner.getId()).orElseThrow().getName());
+		assertEquals(owner.getId(), ownerService.findOwnerByUserEmail(" " + email + " ").orElseThrow().getId());
+		assertEquals(owner.getId(), ownerService.getOwnerByUsername(email).getId());
+		assertEquals(List.of("Rex"), petService.getMyPets().stream().map(Pet::getName).toList());
+		assertEquals("Rex", petService.getPetById(pet.getId()).getName());
+
+		assertEquals(0, statistics.getPrepareStatementCount());
+		assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+		assertTrue(statistics.getNaturalIdCacheHitCount() > 0);
+	}
+
+	@Test
+	void ownerUpdateAndDeleteInvalidateTheCache() {
+		ownerService.getOwnerById(owner.getId());
+		ownerService.findOwnerByUserEmail(email);
+
+		Owner details = new Owner(null, "Renamed Owner", "renamed@petclinic.com", "555-0199", "Street 2", null, null);
+		ownerService.updateOwner(owner.getId(), details);
+
+		Owner cached = ownerService.getOwnerById(owner.getId()).orElseThrow();
+		assertEquals("Renamed Owner", cached.getName());
+		assertEquals("renamed@petclinic.com", cached.getEmail());
+		assertEquals("Renamed Owner", ownerService.findOwnerByUserEmail(email).orElseThrow().getName());
+
+		petService.getMyPets();
+		ownerService.deleteOwner(owner.getId());
+
+		assertTrue(ownerService.getOwnerById(owner.getId()).isEmpty());
+		assertTrue(ownerService.findOwnerByUserEmail(email).isEmpty());
+		assertTrue(petRepository.findById(pet.getId()).isEmpty());
+		assertTrue(petService.getMyPets().isEmpty());
+	}
+
+	@Test
+	void petWritesInvalidateThePetAndTheOwnersPetCollection() {
+		assertEquals(1, petService.getMyPets().size());
+		petService.getPetById(pet.getId());
+
+		Pet changes = new Pet();
+		changes.setName("Rexy");
+		petService.updatePet(pet.getId(), changes);
+
+		assertEquals("Rexy", petService.getPetById(pet.getId()).getName());
+		assertEquals(List.of("Rexy"), petService.getMyPets().stream().map(Pet::getName).toList());
+
+		Pet second = petRepository.save(new Pet(null, "Tom", "Tabby", LocalDate.of(2021, 5, 5), owner));
+		assertEquals(List.of("Rexy", "Tom"), petService.getMyPets().stream().map(Pet::getName).sorted().toList());
+
+		petService.deletePet(pet.getId());
+
+		assertTrue(petRepository.findById(pet.getId()).isEmpty());
+		assertEquals(List.of(second.getId()), petService.getMyPets().stream().map(Pet::getId).toList());
+	}
+}
@@ -0,0 +1,97 @@
+package com.petclinic.PetClinicBackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTests {
+
+	private static final int CALLERS = 8;
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+
+	@Test
+	void concurrentCallsShareOneLoad() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+		try {
+			List<Future<List<String>>> results = new ArrayList<>();
+			for (int i = 0; i < CALLERS; i++) {
+				results.add(executor.submit(() -> singleFlight.load("vets.all", () -> {
+					loads.incrementAndGet();
+					await(release);
+					return List.of("Dr. Who");
+				})));
+			}
+			// Every caller but the leader is waiting on the running load before it is released
+			long deadline = System.currentTimeMillis() + 5000;
+			while (meterRegistry.counter("singleflight.shared", "group", "vets.all").count() < CALLERS - 1
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+
+			List<String> first = results.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<List<String>> result : results) {
+				assertSame(first, result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, loads.get());
+		assertEquals(1, meterRegistry.counter("singleflight.loads", "group", "vets.all").count());
+		assertEquals(CALLERS - 1, meterRegistry.summary("singleflight.shared.per.load", "group", "vets.all").max());
+
+		// Nothing is cached: the next call loads again
+		singleFlight.load("vets.all", () -> List.of("Dr. Who"));
+		assertEquals(2, meterRegistry.counter("singleflight.loads", "group", "vets.all").count());
+	}
+
+	@Test
+	void joinedCallsGetTheLeadersException() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> leader = executor.submit(() -> singleFlight.load("owners.all", () -> {
+				await(release);
+				throw new IllegalStateException("database down");
+			}));
+			while (meterRegistry.counter("singleflight.loads", "group", "owners.all").count() < 1) {
+				Thread.sleep(5);
+			}
+			Future<Object> joined = executor.submit(() -> singleFlight.load("owners.all", () -> "not called"));
+			while (meterRegistry.counter("singleflight.shared", "group", "owners.all").count() < 1) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+
+			Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+			Exception joinedError = assertThrows(Exception.class, () -> joined.get(5, TimeUnit.SECONDS));
+			assertSame(leaderError.getCause(), joinedError.getCause());
+			assertInstanceOf(IllegalStateException.class, joinedError.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			assertTrue(latch.await(5, TimeUnit.SECONDS));
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.petclinic.PetClinicBackend.model.Vet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Real commits (no test transaction), so the after-commit rebuild actually runs
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({VetService.class, VetDirectory.class, OwnerHomeCache.class, SimpleMeterRegistry.class,
+		BookingEngine.class, VetLoadBalancer.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class VetDirectoryTests {
+
+	@Autowired
+	private VetService vetService;
+
+	@Autowired
+	private VetDirectory vetDirectory;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void snapshotFollowsCommittedVetWrites() throws Exception {
+		int before = vetDirectory.size();
+		VetDirectory.Entry initial = vetDirectory.all();
+
+		Vet vet = new Vet();
+		vet.setName("Dr. Snapshot");
+		vet.setSpecialization("Dentistry");
+		Vet saved = vetService.addVet(vet);
+
+		assertNotEquals(initial.version().getEtag(), vetDirectory.all().version().getEtag());
+		assertEquals(before + 1, vetDirectory.size());
+		assertSame(vetDirectory.all().json(), vetDirectory.all().json());
+		JsonNode dentists = objectMapper.readTree(vetService.getVetsBySpecializationSnapshot(" dentistry ").json());
+		assertEquals(1, dentists.size());
+		assertEquals("Dr. Snapshot", dentists.get(0).get("name").asText());
+
+		Vet renamed = new Vet();
+		renamed.setName("Dr. Renamed");
+		renamed.setSpecialization("Surgery");
+		String etagBeforeUpdate = vetService.getVetSnapshotById(saved.getId()).orElseThrow().version().getEtag();
+		vetService.updateVet(saved.getId(), renamed);
+
+		VetDirectory.Entry updated = vetService.getVetSnapshotById(saved.getId()).orElseThrow();
+		assertEquals("Dr. Renamed", objectMapper.readTree(updated.json()).get("name").asText());
+		assertNotEquals(etagBeforeUpdate, updated.version().getEtag());
+		assertTrue(updated.version().getLastModified() > 0);
+		assertEquals("[]", new String(vetService.getVetsBySpecializationSnapshot("dentistry").json()));
+
+		vetService.deleteVet(saved.getId());
+
+		assertTrue(vetService.getVetSnapshotById(saved.getId()).isEmpty());
+		assertEquals(initial.version().getEtag(), vetDirectory.all().version().getEtag());
+		assertEquals(before, vetDirectory.size());
+	}
+}
@@ -0,0 +1,97 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.dto.VisitView;
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.PetRepository;
+import com.petclinic.PetClinicBackend.repository.UserRepository;
+import com.petclinic.PetClinicBackend.repository.VetRepository;
+import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import com.petclinic.PetClinicBackend.security.OwnerScope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import({VisitService.class, OwnerScope.class, ClinicStatsService.class, BookingEngine.class, OwnerHomeCache.class,
+		SingleFlight.class, SimpleMeterRegistry.class, VetService.class, VetDirectory.class, VetLoadBalancer.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class VisitOwnerScopeTests {
+
+	@Autowired
+	private VisitService visitService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OwnerRepository ownerRepository;
+
+	@Autowired
+	private PetRepository petRepository;
+
+	@Autowired
+	private VetRepository vetRepository;
+
+	@Autowired
+	private VisitRepository visitRepository;
+
+	@MockitoBean
+	private UserService userService;
+
+	@Test
+	void ownersOnlySeeVisitsOfTheirOwnPets() {
+		Owner anna = saveOwner("Anna");
+		Owner bo = saveOwner("Bo");
+		Pet rex = petRepository.save(new Pet(null, "Rex", "Beagle", LocalDate.of(2020, 1, 1), anna));
+		Vet vet = new Vet();
+		vet.setName("Dr. Scope");
+		vet = vetRepository.save(vet);
+		visitRepository.save(new Visit(null, LocalDate.of(2025, 3, 10), "Checkup", rex, vet, VisitStatus.UPCOMING));
+
+		// Admins first: the filter stays enabled on the test's session once a non-admin call turns it on
+		when(userService.isCurrentUserAdmin()).thenReturn(true);
+		assertEquals(List.of("Checkup"), descriptions(visitService.getVisitViewsByPetId(rex.getId())));
+
+		when(userService.isCurrentUserAdmin()).thenReturn(false);
+		when(userService.getCurrentOwnerId()).thenReturn(bo.getId());
+		assertEquals(List.of(), visitService.getVisitViewsByPetId(rex.getId()));
+
+		when(userService.getCurrentOwnerId()).thenReturn(anna.getId());
+		assertEquals(List.of("Checkup"), descriptions(visitService.getVisitViewsByPetId(rex.getId())));
+	}
+
+	private static List<String> descriptions(List<VisitView> visits) {
+		return visits.stream().map(VisitView::getDescription).toList();
+	}
+
+	private Owner saveOwner(String name) {
+		String email = name.toLowerCase() + "@petclinic.com";
+		User user = new User();
+		user.setName(name);
+		user.setUsername(email);
+		user.setEmail(email);
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		return ownerRepository.save(new Owner(null, name, email, "555-0100", "Street 1", user, null));
+	}
+}
@@ -0,0 +1,161 @@
+package com.petclinic.PetClinicBackend.service;
+
+import com.petclinic.PetClinicBackend.dto.CursorPage;
+import com.petclinic.PetClinicBackend.dto.VisitView;
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.model.Vet;
+import com.petclinic.PetClinicBackend.model.Visit;
+import com.petclinic.PetClinicBackend.model.VisitStatus;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.PetRepository;
+import com.petclinic.PetClinicBackend.repository.UserRepository;
+import com.petclinic.PetClinicBackend.repository.VetRepository;
+import com.petclinic.PetClinicBackend.repository.VisitRepository;
+import com.petclinic.PetClinicBackend.security.OwnerScope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"visits.search.count-threshold=3"
+})
+@Import({VisitService.class, ClinicStatsService.class, BookingEngine.class, OwnerHomeCache.class, SingleFlight.class,
+		SimpleMeterRegistry.class, VetService.class, VetDirectory.class, VetLoadBalancer.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class VisitSearchTests {
+
+	@Autowired
+	private VisitService visitService;
+
+	@Autowired
+	private ClinicStatsService statsService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OwnerRepository ownerRepository;
+
+	@Autowired
+	private PetRepository petRepository;
+
+	@Autowired
+	private VetRepository vetRepository;
+
+	@Autowired
+	private VisitRepository visitRepository;
+
+	@MockitoBean
+	private UserService userService;
+
+	@MockitoBean
+	private OwnerScope ownerScope;
+
+	private final LocalDate day = LocalDate.of(2025, 3, 10);
+	private Owner anna;
+	private Owner bo;
+	private Vet surgeon;
+	private Vet dentist;
+
+	@BeforeEach
+	void seed() {
+		anna = saveOwner("Anna");
+		bo = saveOwner("Bo");
+		Pet rex = petRepository.save(new Pet(null, "Rex", "Beagle", LocalDate.of(2020, 1, 1), anna));
+		Pet tom = petRepository.save(new Pet(null, "Tom", "Siamese", LocalDate.of(2021, 1, 1), bo));
+		surgeon = saveVet("Dr. Cut");
+		dentist = saveVet("Dr. Tooth");
+		for (int i = 0; i < 5; i++) {
+			visitRepository.save(new Visit(null, day.plusDays(i), "Checkup", rex, surgeon, VisitStatus.UPCOMING));
+		}
+		visitRepository.save(new Visit(null, day.minusDays(1), "Teeth", tom, dentist, VisitStatus.COMPLETED));
+		visitRepository.save(new Visit(null, day.minusDays(2), "Teeth", tom, dentist, VisitStatus.COMPLETED));
+		visitRepository.save(new Visit(null, day.plusDays(1), "Teeth", rex, dentist, VisitStatus.CANCELLED));
+		statsService.reconcile();
+	}
+
+	@Test
+	void filtersAreCombinedAndPagesFollowTheCursor() {
+		List<VisitView> upcoming = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPage<VisitView> page = visitService.searchVisits(
+					filter(VisitStatus.UPCOMING, null, null, null, null), cursor, 2, null, false);
+			upcoming.addAll(page.getItems());
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		assertEquals(List.of(day.plusDays(4), day.plusDays(3), day.plusDays(2), day.plusDays(1), day),
+				upcoming.stream().map(VisitView::getVisitDate).toList());
+
+		CursorPage<VisitView> dentistAroundDay = visitService.searchVisits(
+				filter(null, dentist.getId(), null, day.minusDays(1), day.plusDays(1)), null, 10, "visitDate", true);
+		assertEquals(List.of(day.minusDays(1), day.plusDays(1)),
+				dentistAroundDay.getItems().stream().map(VisitView::getVisitDate).toList());
+		assertEquals(2L, dentistAroundDay.getTotal());
+
+		CursorPage<VisitView> bosVisits = visitService.searchVisits(
+				filter(null, null, bo.getId(), null, null), null, 10, null, false);
+		assertEquals(2, bosVisits.getItems().size());
+		assertTrue(bosVisits.getItems().stream().allMatch(visit -> visit.getPet().getOwnerId().equals(bo.getId())));
+
+		assertThrows(IllegalArgumentException.class, () -> visitService.searchVisits(
+				filter(null, null, null, day, day.minusDays(1)), null, 10, null, false));
+	}
+
+	@Test
+	void totalsPastTheThresholdAreEstimatedUnlessScopedToAnOwner() {
+		CursorPage<VisitView> upcoming = visitService.searchVisits(
+				filter(VisitStatus.UPCOMING, null, null, null, null), null, 2, null, true);
+		assertEquals(5L, upcoming.getTotal()); // 8 visits × 5/8 upcoming
+		assertTrue(upcoming.getTotalEstimated());
+
+		CursorPage<VisitView> annas = visitService.searchVisits(
+				filter(null, null, anna.getId(), null, null), null, 2, null, true);
+		assertEquals(6L, annas.getTotal());
+		assertNull(annas.getTotalEstimated());
+
+		CursorPage<VisitView> completed = visitService.searchVisits(
+				filter(VisitStatus.COMPLETED, null, null, null, null), null, 1, null, true);
+		assertEquals(2L, completed.getTotal());
+		assertNull(completed.getTotalEstimated());
+	}
+
+	private static VisitService.SearchFilter filter(VisitStatus status, Long vetId, Long ownerId,
+													 LocalDate from, LocalDate to) {
+		return new VisitService.SearchFilter(status, vetId, ownerId, null, from, to);
+	}
+
+	private Owner saveOwner(String name) {
+		String email = name.toLowerCase() + System.nanoTime() + "@petclinic.com";
+		User user = new User();
+		user.setName(name);
+		user.setUsername(email);
+		user.setEmail(email);
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		return ownerRepository.save(new Owner(null, name, email, "555-0100", "Street 1", user, null));
+	}
+
+	private Vet saveVet(String name) {
+		Vet vet = new Vet();
+		vet.setName(name);
+		vet.setSpecialization("General");
+		return vetRepository.save(vet);
+	}
+}
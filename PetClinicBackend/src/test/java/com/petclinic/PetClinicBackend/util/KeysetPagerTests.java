@@ -0,0 +1,99 @@
+package com.petclinic.PetClinicBackend.util;
+
+import com.petclinic.PetClinicBackend.dto.CursorPage;
+import com.petclinic.PetClinicBackend.model.Owner;
+import com.petclinic.PetClinicBackend.model.Pet;
+import com.petclinic.PetClinicBackend.model.User;
+import com.petclinic.PetClinicBackend.repository.OwnerRepository;
+import com.petclinic.PetClinicBackend.repository.PetRepository;
+import com.petclinic.PetClinicBackend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class KeysetPagerTests {
+
+	private static final Set<String> SORTABLE = Set.of("id", "name", "birthDate");
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OwnerRepository ownerRepository;
+
+	@Autowired
+	private PetRepository petRepository;
+
+	private final List<Pet> pets = new ArrayList<>();
+
+	@BeforeEach
+	void seed() {
+		User user = new User();
+		user.setName("Pager");
+		user.setUsername("pager@petclinic.com");
+		user.setEmail("pager@petclinic.com");
+		user.setPassword("secret");
+		user = userRepository.save(user);
+		Owner owner = ownerRepository.save(new Owner(null, "Pager", "pager@petclinic.com", null, null, user, null));
+		LocalDate[] birthDates = {LocalDate.of(2020, 1, 1), null, LocalDate.of(2019, 1, 1), null,
+				LocalDate.of(2020, 1, 1), null, LocalDate.of(2018, 1, 1)};
+		for (LocalDate birthDate : birthDates) {
+			pets.add(petRepository.save(new Pet(null, "Pet", "Mixed", birthDate, owner)));
+		}
+	}
+
+	@Test
+	void nullKeysArePagedLikeAnyOtherValue() {
+		// Nulls lowest: first ascending, last descending; ties broken by id in the same direction
+		assertEquals(List.of(1, 3, 5, 6, 2, 0, 4), walk("birthDate"));
+		assertEquals(List.of(4, 0, 2, 6, 5, 3, 1), walk("birthDate,desc"));
+	}
+
+	@Test
+	void cursorIsRejectedUnderAnotherSort() {
+		Sort byBirthDate = KeysetPager.parseSort("birthDate", SORTABLE, Sort.by("id"));
+		String cursor = KeysetPager.scroll(petRepository, null, byBirthDate, null, 2, false, pet -> pet)
+				.getNextCursor();
+
+		Sort byName = KeysetPager.parseSort("name", SORTABLE, Sort.by("id"));
+		assertThrows(IllegalArgumentException.class,
+				() -> KeysetPager.scroll(petRepository, null, byName, cursor, 2, false, pet -> pet));
+		assertThrows(IllegalArgumentException.class,
+				() -> KeysetPager.scroll(petRepository, null, byBirthDate, "not-a-cursor", 2, false, pet -> pet));
+	}
+
+	// Indexes into pets, in the order the pages served them
+	private List<Integer> walk(String sortParam) {
+		Sort sort = KeysetPager.parseSort(sortParam, SORTABLE, Sort.by("id"));
+		List<Integer> order = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPage<Long> page = KeysetPager.scroll(petRepository, null, sort, cursor, 2, false, Pet::getId);
+			page.getItems().forEach(id -> order.add(indexOf(id)));
+			cursor = page.getNextCursor();
+		} while (cursor != null);
+		return order;
+	}
+
+	private int indexOf(Long id) {
+		for (int i = 0; i < pets.size(); i++) {
+			if (pets.get(i).getId().equals(id)) {
+				return i;
+			}
+		}
+		throw new AssertionError("Unknown pet " + id);
+	}
+}
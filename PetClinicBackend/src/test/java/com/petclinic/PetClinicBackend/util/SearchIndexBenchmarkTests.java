@@ -0,0 +1,64 @@
+package com.petclinic.PetClinicBackend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Fuzzy query cost against index size: mvn test -Dtest=SearchIndexBenchmarkTests -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SearchIndexBenchmarkTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(SearchIndexBenchmarkTests.class);
+	private static final String[] QUERIES = {"millr", "andersn", "jonhson", "beagel", "cristopher", "wiliams"};
+	private static final int RUNS = 2_000;
+
+	// ⏱ Ten times the terms should cost nowhere near ten times per typo query
+	@Test
+	void fuzzyQueryCostDoesNotGrowWithTheIndex() {
+		double small = nanosPerQuery(index(20_000));
+		double large = nanosPerQuery(index(200_000));
+
+		logger.info("SearchIndex fuzzy query: {} µs at 20k docs, {} µs at 200k docs",
+				String.format("%.1f", small / 1000), String.format("%.1f", large / 1000));
+		assertTrue(large < small * 3, "fuzzy query scales with the index: " + small + " -> " + large + " ns");
+	}
+
+	private static SearchIndex index(int size) {
+		Random random = new Random(42);
+		SearchIndex index = new SearchIndex(null, 8);
+		for (int i = 0; i < size; i++) {
+			index.put(new SearchIndex.Doc("OWNER", i, 0, List.of(word(random) + " " + word(random))));
+		}
+		return index;
+	}
+
+	// Pronounceable random names, so prefixes cluster the way real names do
+	private static String word(Random random) {
+		String consonants = "bcdfghjklmnprstvw";
+		String vowels = "aeiou";
+		StringBuilder word = new StringBuilder();
+		int syllables = 2 + random.nextInt(3);
+		for (int s = 0; s < syllables; s++) {
+			word.append(consonants.charAt(random.nextInt(consonants.length())));
+			word.append(vowels.charAt(random.nextInt(vowels.length())));
+		}
+		return word.toString();
+	}
+
+	private static double nanosPerQuery(SearchIndex index) {
+		for (int i = 0; i < RUNS; i++) { // warm-up
+			index.search(QUERIES[i % QUERIES.length], null, 10);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < RUNS; i++) {
+			index.search(QUERIES[i % QUERIES.length], null, 10);
+		}
+		return (System.nanoTime() - start) / (double) RUNS;
+	}
+}
@@ -0,0 +1,101 @@
+package com.petclinic.PetClinicBackend.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void matchesWholeWordsPrefixesAndTypos() {
+		SearchIndex index = new SearchIndex(null, 8);
+		index.put(owner(1, 0, "Jörg Müller", "jorg@example.com", "+1 (555) 010-0200"));
+		index.put(owner(2, 0, "Jane Miller", "jane@example.com", "555-0300"));
+		index.put(new SearchIndex.Doc("PET", 1, 0, List.of("Millie", "Beagle")));
+
+		assertEquals(List.of(1L, 2L), ids(index.search("muller", null, 10)));
+		assertEquals(List.of(1L), ids(index.search("jor mul", null, 10)));
+		assertEquals(List.of(1L), ids(index.search("15550100200", null, 10)));
+		// Exact beats one edit: Miller, then Müller
+		assertEquals(List.of(2L, 1L), ids(index.search("miller", Set.of("OWNER"), 10)));
+		assertEquals(List.of(1L), ids(index.search("mil", Set.of("PET"), 10)));
+		assertTrue(index.search("beagle jane", null, 10).isEmpty());
+		assertTrue(index.search("  ", null, 10).isEmpty());
+	}
+
+	@Test
+	void updatesReplaceTermsAndStaleVersionsAreIgnored() {
+		SearchIndex index = new SearchIndex(null, 8);
+		index.put(owner(1, 1, "Anna Berg", "", ""));
+		index.put(owner(1, 2, "Anna Lind", "", ""));
+		assertFalse(index.put(owner(1, 1, "Anna Berg", "", "")));
+
+		assertTrue(index.search("berg", null, 10).isEmpty());
+		assertEquals(List.of(1L), ids(index.search("lind", null, 10)));
+
+		index.delete("OWNER", 1);
+		assertTrue(index.search("anna", null, 10).isEmpty());
+		assertEquals(0, index.termCount());
+	}
+
+	@Test
+	void segmentsAreReplayedAndCompacted() throws IOException {
+		SearchIndex index = new SearchIndex(directory, 2);
+		index.put(owner(1, 0, "Anna Berg", "", ""));
+		index.put(owner(2, 0, "Bo Lind", "", ""));
+		index.setWatermark(42L);
+		index.flush();
+		index.delete("OWNER", 2);
+		index.put(owner(3, 0, "Cai Holm", "", ""));
+		index.flush();
+		assertEquals(2, index.segmentCount());
+
+		SearchIndex reopened = new SearchIndex(directory, 2);
+		assertTrue(reopened.open());
+		assertEquals(Set.of(1L, 3L), reopened.ids("OWNER"));
+		assertEquals(42L, reopened.getWatermark());
+
+		reopened.put(owner(1, 1, "Anna Dahl", "", ""));
+		reopened.flush();
+		assertEquals(1, reopened.segmentCount());
+		try (var files = Files.list(directory)) {
+			assertEquals(1, files.count());
+		}
+		SearchIndex compacted = new SearchIndex(directory, 2);
+		compacted.open();
+		assertEquals(List.of(1L), ids(compacted.search("dahl", null, 10)));
+		assertEquals(Set.of(1L, 3L), compacted.ids("OWNER"));
+	}
+
+	@Test
+	void corruptedSegmentIsRejected() throws IOException {
+		SearchIndex index = new SearchIndex(directory, 8);
+		index.put(owner(1, 0, "Anna Berg", "", ""));
+		index.flush();
+		try (var files = Files.list(directory)) {
+			Path segment = files.findFirst().orElseThrow();
+			byte[] bytes = Files.readAllBytes(segment);
+			bytes[bytes.length / 2] ^= 1;
+			Files.write(segment, bytes);
+		}
+		assertThrows(IOException.class, () -> new SearchIndex(directory, 8).open());
+	}
+
+	private static SearchIndex.Doc owner(long id, long version, String name, String email, String phone) {
+		return new SearchIndex.Doc("OWNER", id, version, List.of(name, email, phone));
+	}
+
+	private static List<Long> ids(List<SearchIndex.Hit> hits) {
+		return hits.stream().map(hit -> hit.doc().id()).toList();
+	}
+}
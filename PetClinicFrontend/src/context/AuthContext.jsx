@@ -1,5 +1,6 @@
 import { createContext, useState, useEffect, useContext } from "react";
 import { jwtDecode } from "jwt-decode";
+import { logout as logoutApi } from "@/services/api";
 
 const AuthContext = createContext();
 
@@ -26,9 +27,12 @@ export const AuthProvider = ({ children }) => {
     }
   });
 
-  const login = (jwt) => {
+  const login = (jwt, refreshToken) => {
     if (jwt && jwt.split(".").length === 3) {
       localStorage.setItem("token", jwt);
+      if (refreshToken) {
+        localStorage.setItem("refreshToken", refreshToken);
+      }
       setToken(jwt);
 
       const decoded = jwtDecode(jwt);
@@ -45,7 +49,12 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    const refreshToken = localStorage.getItem("refreshToken");
+    if (refreshToken) {
+      logoutApi(refreshToken).catch(() => {});
+    }
     localStorage.removeItem("token");
+    localStorage.removeItem("refreshToken");
     setToken(null);
     setUser(null);
   };
@@ -26,7 +26,7 @@ const LoginPage = () => {
       const token = res.data.token;
       if (!token) throw new Error("Token not received");
 
-      login(token);
+      login(token, res.data.refreshToken);
       toast.success("✅ Login successful!");
 
       const decoded = JSON.parse(atob(token.split('.')[1]));
@@ -14,32 +14,20 @@ import {
   Tooltip,
   ResponsiveContainer,
 } from "recharts";
-import {
-  getAllOwners,
-  getAllPets,
-  getAllVisits,
-} from "@/services/api";
+import { getClinicStats } from "@/services/api";
 import { Button } from "@/components/ui/button";
 
 const AdminDashboard = () => {
-  const [owners, setOwners] = useState([]);
-  const [pets, setPets] = useState([]);
-  const [visits, setVisits] = useState([]);
+  const [stats, setStats] = useState(null);
   const [loading, setLoading] = useState(true);
   const location = useLocation();
 
   const loadData = async () => {
     setLoading(true);
     try {
-      const [ownersRes, petsRes, visitsRes] = await Promise.all([
-        getAllOwners(),
-        getAllPets(),
-        getAllVisits(),
-      ]);
-
-      setOwners(Array.isArray(ownersRes.data) ? ownersRes.data : []);
-      setPets(Array.isArray(petsRes.data) ? petsRes.data : []);
-      setVisits(Array.isArray(visitsRes.data) ? visitsRes.data : []);
+      // 📊 Server-side counters instead of downloading every owner, pet and visit
+      const res = await getClinicStats();
+      setStats(res.data);
     } catch (error) {
       console.error("❌ Error fetching admin dashboard data:", error);
     } finally {
@@ -56,16 +44,17 @@ const AdminDashboard = () => {
     "Jul", "Aug", "Sep", "Oct", "Nov", "Dec",
   ];
 
-  const chartData = visits
-    .reduce((acc, visit) => {
-      const date = new Date(visit.visitDate);
+  const chartData = Object.entries(stats?.visitsByMonth || {})
+    .reduce((acc, [yearMonth, count]) => {
+      const [year, monthIndex] = yearMonth.split("-").map(Number);
+      const date = new Date(year, monthIndex - 1, 1);
       const month = date.toLocaleString("default", { month: "short" });
 
       const existing = acc.find((item) => item.name === month);
       if (existing) {
-        existing.appointments += 1;
+        existing.appointments += count;
       } else {
-        acc.push({ name: month, appointments: 1 });
+        acc.push({ name: month, appointments: count });
       }
       return acc;
     }, [])
@@ -88,19 +77,19 @@ const AdminDashboard = () => {
       <div className="grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-3 gap-6">
         <StatCard
           title="Total Owners"
-          count={owners.length}
+          count={stats?.totalOwners ?? 0}
           loading={loading}
           className="bg-green-100 text-green-900"
         />
         <StatCard
           title="Total Pets"
-          count={pets.length}
+          count={stats?.totalPets ?? 0}
           loading={loading}
           className="bg-gray-100 text-gray-800"
         />
         <StatCard
           title="Appointments"
-          count={visits.length}
+          count={stats?.totalVisits ?? 0}
           loading={loading}
           className="bg-black text-white"
         />
@@ -14,12 +14,7 @@ import {
   Tooltip,
   ResponsiveContainer,
 } from "recharts";
-import {
-  getAllOwners,
-  getAllPets,
-  getAllVets,
-  getAllVisits,
-} from "@/services/api";
+import { getClinicStats, getVisitPage } from "@/services/api";
 import moment from "moment";
 
 const SuperAdminDashboard = () => {
@@ -34,28 +29,19 @@ const SuperAdminDashboard = () => {
     try {
       setLoading(true);
 
-      const [ownersRes, petsRes, vetsRes, visitsRes] = await Promise.all([
-        getAllOwners(),
-        getAllPets(),
-        getAllVets(),
-        getAllVisits(),
+      // 📊 Totals from server-side counters, recent visits from a single 5-row page
+      const [statsRes, recentRes] = await Promise.all([
+        getClinicStats(),
+        getVisitPage({ size: 5, sort: "visitDate,desc" }),
       ]);
 
-      const owners = Array.isArray(ownersRes?.data) ? ownersRes.data : [];
-      const pets = Array.isArray(petsRes?.data) ? petsRes.data : [];
-      const vets = Array.isArray(vetsRes?.data) ? vetsRes.data : [];
-      const visits = Array.isArray(visitsRes?.data) ? visitsRes.data : [];
-
-      setTotalOwners(owners.length);
-      setTotalPets(pets.length);
-      setTotalVets(vets.length);
-      setTotalVisits(visits.length);
-
-      const sortedVisits = [...visits]
-        .sort((a, b) => new Date(b.visitDate) - new Date(a.visitDate))
-        .slice(0, 5);
+      const stats = statsRes?.data || {};
+      setTotalOwners(stats.totalOwners ?? 0);
+      setTotalPets(stats.totalPets ?? 0);
+      setTotalVets(stats.totalVets ?? 0);
+      setTotalVisits(stats.totalVisits ?? 0);
 
-      setRecentVisits(sortedVisits);
+      setRecentVisits(Array.isArray(recentRes?.data?.items) ? recentRes.data.items : []);
     } catch (error) {
       console.error("Error loading dashboard:", error);
     } finally {
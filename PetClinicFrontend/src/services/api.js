@@ -16,10 +16,63 @@ api.interceptors.request.use((config) => {
   return config;
 });
 
+// 🔄 On 401, swap the refresh token for a new access token once and replay the request.
+// Tabs share the tokens in localStorage: the swap holds a cross-tab lock, and is skipped when another tab
+// already stored a newer access token than the one that failed.
+let refreshPromise = null;
+
+const rotateTokens = async (failedToken) => {
+  const current = localStorage.getItem("token");
+  if (current && current !== failedToken) return current;
+
+  const refreshToken = localStorage.getItem("refreshToken");
+  if (!refreshToken) throw new Error("No refresh token");
+
+  const res = await axios.post(`${api.defaults.baseURL}/auth/refresh`, { refreshToken });
+  localStorage.setItem("token", res.data.token);
+  localStorage.setItem("refreshToken", res.data.refreshToken);
+  return res.data.token;
+};
+
+const refreshAccessToken = (failedToken) => {
+  if (!refreshPromise) {
+    const rotate = () => rotateTokens(failedToken);
+    refreshPromise = (navigator.locks ? navigator.locks.request("petclinic-token-refresh", rotate) : rotate())
+      .finally(() => {
+        refreshPromise = null;
+      });
+  }
+  return refreshPromise;
+};
+
+api.interceptors.response.use(
+  (response) => response,
+  async (error) => {
+    const original = error.config;
+    const isAuthCall = original?.url?.startsWith("/auth/");
+
+    if (error.response?.status === 401 && original && !original._retry && !isAuthCall) {
+      original._retry = true;
+      try {
+        const failedToken = original.headers?.Authorization?.replace(/^Bearer /, "");
+        const token = await refreshAccessToken(failedToken);
+        original.headers.Authorization = `Bearer ${token}`;
+        return api(original);
+      } catch (refreshError) {
+        localStorage.removeItem("token");
+        localStorage.removeItem("refreshToken");
+        return Promise.reject(refreshError);
+      }
+    }
+    return Promise.reject(error);
+  }
+);
+
 //
 // 🔑 AUTH SERVICES
 //
 export const login = (credentials) => api.post("/auth/login", credentials);
+export const logout = (refreshToken) => api.post("/auth/logout", { refreshToken });
 export const register = (userData) => {
   const payload = { ...userData, username: userData.name };
   return api.post("/auth/register", payload);
@@ -35,6 +88,11 @@ export const createOwner = (data) => api.post("/owners", data);
 export const updateOwner = (id, data) => api.put(`/owners/${id}`, data);
 export const deleteOwner = (id) => api.delete(`/owners/${id}`);
 
+//
+// 📊 ADMIN STATS
+//
+export const getClinicStats = () => api.get("/admin/stats");
+
 //
 // 🐶 PET SERVICES
 //
@@ -76,6 +134,8 @@ export const deleteVet = (id) => api.delete(`/vets/${id}`);
 // 📅 VISIT/APPOINTMENT SERVICES
 //
 export const getAllVisits = () => api.get("/visits");
+export const getVisitPage = (params) => api.get("/visits/page", { params });
+export const searchVisits = (params) => api.get("/visits/search", { params });
 export const getMyVisits = () => api.get("/visits/mine");
 export const getVisitById = (id) => api.get(`/visits/${id}`);
 export const createVisit = (visitData) => api.post("/visits", visitData);